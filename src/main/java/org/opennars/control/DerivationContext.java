@@ -95,7 +95,7 @@ public class DerivationContext {
                 return false;
             }
         }
-        if(task.sentence.term.cloneDeep() == null) {
+        if(!Term.valid(task.sentence.term)) {
             //sorted subterm version leaded to a invalid term that remained undetected while the term was constructed optimistically
             //example: (&,a,b) --> (&,b,a) which gets normalized to (&,a,b) --> (&,a,b) which is invalid.
             memory.removeTask(task, "Wrong Format");
@@ -136,12 +136,32 @@ public class DerivationContext {
         memory.event.emit(Events.TaskDerive.class, task, revised, single);
         //memory.logic.TASK_DERIVED.commit(task.budget.getPriority());
         
+        if(memory.derivationFilter != null && !memory.derivationFilter.test(task)) {
+            return false; //belongs to another memory
+        }
         if(addToMemory) {
             addTask(task, "Derived");
         }
         return true;
     }
 
+    /**
+     * The checks of derivedTask which don't depend on the term of the conclusion: its budget,
+     * its confidence and, unless allowed, the evidential overlap of the premises. Rules call it
+     * before building the term, so rejected conclusions cost no term, Sentence or Task.
+     * <p>
+     * It changes nothing, so a rule can check several conclusions before deriving any of them.
+     * Resetting the occurrence time of a rejected conclusion is left to doublePremiseTask.
+     *
+     * @return whether the conclusion can pass derivedTask
+     */
+    public boolean admissible(final TruthValue truth, final BudgetValue budget, final boolean overlapAllowed) {
+        if (budget == null || !budget.aboveThreshold()) {
+            return false;
+        }
+        return (truth == null || truth.getConfidence() >= narParameters.TRUTH_EPSILON) && (overlapAllowed || !evidentalOverlap);
+    }
+
     /* --------------- new task building --------------- */
     /**
      * Shared final operations by all double-premise rules, called from the
@@ -189,6 +209,12 @@ public class DerivationContext {
             if(newContent.subjectOrPredicateIsIndependentVar()) {
                 return null;
             }
+            if(!admissible(newTruth, newBudget, overlapAllowed)) { //the eternalized one would be rejected too
+                if (newStamp != null) {
+                    this.resetOccurrenceTime(); //as if the stamp was obsorbed into the rejected task
+                }
+                return ret;
+            }
             final Stamp derive_stamp = getTheNewStamp().clone(); //because occurrence time will be reset:
             this.resetOccurrenceTime(); //stamp was already obsorbed into task
 
@@ -280,11 +280,11 @@ public class ProcessGoal {
                 continue;
             }
             //and the truth of the precondition:
-            final Sentence projectedPrecon = bestsofar.sentence.projection(nal.time.time() /*- distance*/, nal.time.time(), concept.memory);
-            if(projectedPrecon.isEternal()) {
+            final float preconConfidence = bestsofar.sentence.projectionConfidence(nal.time.time() /*- distance*/, nal.time.time(), concept.memory);
+            if(preconConfidence < 0) {
                 continue; //projection wasn't better than eternalization, too long in the past
             }
-            final TruthValue precon = projectedPrecon.truth;
+            final TruthValue precon = new TruthValue(bestsofar.sentence.truth.getFrequency(), preconConfidence, concept.memory.narParameters);
             //and derive the conjunction of the left side:
             final TruthValue leftside = TruthFunctions.desireDed(A, Hyp, concept.memory.narParameters);
             //in order to derive the operator desire value:
@@ -24,11 +24,13 @@ import org.opennars.language.Term;
 import org.opennars.main.Shell;
 import org.opennars.main.Parameters;
 import org.opennars.storage.Bag;
+import org.opennars.storage.EmptyBag;
 import org.opennars.storage.LevelBag;
 import org.opennars.storage.Memory;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.opennars.control.concept.ProcessQuestion;
@@ -50,14 +52,16 @@ public class Concept extends Item<Term> implements Serializable {
     public Bag<Task<Term>,Sentence<Term>> seq_before;
 
     /**
-     * Task links for indirect processing
+     * Task links for indirect processing, the shared empty bag until the first
+     * link is inserted through {@link #taskLinkBag()}
      */
-    public final Bag<TaskLink,Task> taskLinks;
+    public Bag<TaskLink,Task> taskLinks = EmptyBag.instance();
 
     /**
-     * Term links between the term and its components and compounds; beliefs
+     * Term links between the term and its components and compounds; beliefs,
+     * the shared empty bag until the first link is inserted through {@link #termLinkBag()}
      */
-    public final Bag<TermLink,TermLink> termLinks;
+    public Bag<TermLink,TermLink> termLinks = EmptyBag.instance();
 
     /**
      * Link templates of TermLink, only in concepts with CompoundTerm Templates
@@ -104,6 +108,17 @@ public class Concept extends Item<Term> implements Serializable {
 
     public boolean observable = false;
 
+    /** last estimate of the retained bytes, kept by MemoryFootprint.Tracker */
+    public transient long footprint = 0;
+
+    /* beliefs projected in the cycle projectionTime, see projection(..) */
+    private static final int PROJECTION_MEMO_SIZE = 4;
+    private transient Sentence[] projectionSources = null;
+    private transient Sentence[] projections = null;
+    private transient long[] projectionTargets = null;
+    private transient long projectionTime = Long.MIN_VALUE;
+    private transient int projectionNext = 0;
+
     /**
      * Constructor, called in Memory.getConcept only
      *
@@ -122,17 +137,35 @@ public class Concept extends Item<Term> implements Serializable {
         this.quests = new ArrayList<>();
         this.desires = new ArrayList<>();
 
-        this.taskLinks = new LevelBag<>(memory.narParameters.TASK_LINK_BAG_LEVELS, memory.narParameters.TASK_LINK_BAG_SIZE, memory.narParameters);
-        this.termLinks = new LevelBag<>(memory.narParameters.TERM_LINK_BAG_LEVELS, memory.narParameters.TERM_LINK_BAG_SIZE, memory.narParameters);
                 
         if (tm instanceof CompoundTerm) {
-            this.termLinkTemplates = ((CompoundTerm) tm).prepareComponentLinks();
+            final List<TermLink> templates = ((CompoundTerm) tm).prepareComponentLinks();
+            if (templates instanceof ArrayList) { //presized by complexity, kept for the lifetime of the concept
+                ((ArrayList<TermLink>) templates).trimToSize();
+            }
+            this.termLinkTemplates = templates;
         } else {
             this.termLinkTemplates = null;
         }
 
     }
 
+    /** the task link bag to insert into, replacing the shared empty bag on first use */
+    public Bag<TaskLink,Task> taskLinkBag() {
+        if (EmptyBag.is(taskLinks)) {
+            taskLinks = new LevelBag<>(memory.narParameters.TASK_LINK_BAG_LEVELS, memory.narParameters.TASK_LINK_BAG_SIZE, memory.narParameters);
+        }
+        return taskLinks;
+    }
+
+    /** the term link bag to insert into, replacing the shared empty bag on first use */
+    public Bag<TermLink,TermLink> termLinkBag() {
+        if (EmptyBag.is(termLinks)) {
+            termLinks = new LevelBag<>(memory.narParameters.TERM_LINK_BAG_LEVELS, memory.narParameters.TERM_LINK_BAG_SIZE, memory.narParameters);
+        }
+        return termLinks;
+    }
+
     @Override public boolean equals(final Object obj) {
         if (this == obj) return true;
         if (!(obj instanceof Concept)) return false;
@@ -320,7 +353,7 @@ public class Concept extends Item<Term> implements Serializable {
             }
         }
         //END HANDLE MAX PER CONTENT
-        final TaskLink removed = taskLinks.putIn(taskLink);      
+        final TaskLink removed = taskLinkBag().putIn(taskLink);
         if (removed!=null) {
             if (removed == taskLink) {
                 memory.emit(TaskLinkRemove.class, taskLink, this);
@@ -385,7 +418,7 @@ public class Concept extends Item<Term> implements Serializable {
      * @param termLink The termLink to be inserted
      */
     public boolean insertTermLink(final TermLink termLink) {
-        final TermLink removed = termLinks.putIn(termLink);
+        final TermLink removed = termLinkBag().putIn(termLink);
         if (removed!=null) {
             if (removed == termLink) {
                 memory.emit(TermLinkRemove.class, termLink, this);
@@ -490,7 +523,7 @@ public class Concept extends Item<Term> implements Serializable {
             nal.emit(BeliefSelect.class, belief);
             nal.setTheNewStamp(taskStamp, belief.stamp, currentTime);
             
-            final Sentence projectedBelief = belief.projection(taskStamp.getOccurrenceTime(), nal.time.time(), nal.memory);
+            final Sentence projectedBelief = projection(belief, taskStamp.getOccurrenceTime(), currentTime);
             /*if (projectedBelief.getOccurenceTime() != belief.getOccurenceTime()) {
                nal.singlePremiseTask(projectedBelief, task.budget);
             }*/
@@ -500,6 +533,34 @@ public class Concept extends Item<Term> implements Serializable {
         return null;
     }
 
+    /**
+     * Projection of a belief of this concept, memoized for the current cycle since the
+     * same belief is projected to the same time for many premise pairs
+     */
+    public Sentence projection(final Sentence belief, final long targetTime, final long currentTime) {
+        if (projectionSources == null) {
+            projectionSources = new Sentence[PROJECTION_MEMO_SIZE];
+            projections = new Sentence[PROJECTION_MEMO_SIZE];
+            projectionTargets = new long[PROJECTION_MEMO_SIZE];
+        }
+        if (projectionTime != currentTime) {
+            Arrays.fill(projectionSources, null);
+            Arrays.fill(projections, null);
+            projectionTime = currentTime;
+        }
+        for (int i = 0; i < PROJECTION_MEMO_SIZE; i++) {
+            if (projectionSources[i] == belief && projectionTargets[i] == targetTime) {
+                return projections[i];
+            }
+        }
+        final Sentence projected = belief.projection(targetTime, currentTime, memory);
+        projectionSources[projectionNext] = belief;
+        projectionTargets[projectionNext] = targetTime;
+        projections[projectionNext] = projected;
+        projectionNext = (projectionNext + 1) % PROJECTION_MEMO_SIZE;
+        return projected;
+    }
+
     /**
      * Get the current overall desire value. TODO to be refined
      */
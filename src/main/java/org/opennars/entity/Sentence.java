@@ -16,6 +16,7 @@ package org.opennars.entity;
 
 import org.opennars.inference.TemporalRules;
 import org.opennars.inference.TruthFunctions;
+import org.opennars.inference.UtilityFunctions;
 import org.opennars.inference.TruthFunctions.EternalizedTruthValue;
 import org.opennars.io.Symbols;
 import org.opennars.io.Texts;
@@ -363,6 +364,27 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
         return newTruth;
     }
 
+    /**
+     * Confidence of the projection to the target time, without creating the projected truth
+     * value; its frequency is the one of this sentence
+     *
+     * @return the projected confidence, or -1 if eternalizing gives the higher confidence
+     */
+    public float projectionConfidence(final long targetTime, final long currentTime, final Memory mem) {
+        final float confidence = truth.getConfidence();
+        if (stamp.isEternal()) {
+            return confidence;
+        }
+        if (targetTime == Stamp.ETERNAL) {
+            return -1;
+        }
+        final float maxConfidence = 1.0f - mem.narParameters.TRUTH_EPSILON;
+        final float eternalized = Math.min(UtilityFunctions.w2c(confidence, mem.narParameters), maxConfidence);
+        final float factor = TruthFunctions.temporalProjection(stamp.getOccurrenceTime(), targetTime, currentTime, mem.param);
+        final float projected = factor * confidence;
+        return projected > eternalized ? Math.min(projected, maxConfidence) : -1;
+    }
+
     /**
      * Recognize a Judgment
      * @return Whether the object is a Judgment
@@ -102,6 +102,20 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
     }
 
 
+    /**
+     * Constructor to restore a TaskLink with known type and indices
+     * <p>
+     * called when loading a memory snapshot
+     */
+    public TaskLink(final Task t, final short type, final short[] index, final BudgetValue v, final int recordLength) {
+        super(v);
+        this.type = type;
+        this.index = index;
+        this.targetTask = t;
+        this.recordLength = recordLength;
+        this.records = new ArrayDeque(recordLength);
+    }
+
     @Override
     public int hashCode() {        
         return targetTask.hashCode();                
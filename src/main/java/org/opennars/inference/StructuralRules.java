@@ -695,7 +695,7 @@ public final class StructuralRules {
         final boolean hasRight = index < (compound.size() - 1);
 
         if (hasLeft) {
-            final int sliceStartIndexInclusive = Memory.randomNumber.nextInt(index - 1 + 1 /* inclusive */); //if index-1 it would have length 1, no group
+            final int sliceStartIndexInclusive = nal.memory.randomNumber.nextInt(index - 1 + 1 /* inclusive */); //if index-1 it would have length 1, no group
             final int sliceEndIndexInclusive = index;
 
             final boolean allRange = sliceStartIndexInclusive == 0 && sliceEndIndexInclusive == (conjCompound.term.length - 1);
@@ -710,7 +710,7 @@ public final class StructuralRules {
             {
                 final int randminInclusive = index + 1;
                 final int randmaxInclusive = compound.size() - 1;
-                sliceEndIndexInclusive = Memory.randomNumber.nextInt(randmaxInclusive - randminInclusive + 1 /*inclusive*/) + randminInclusive;
+                sliceEndIndexInclusive = nal.memory.randomNumber.nextInt(randmaxInclusive - randminInclusive + 1 /*inclusive*/) + randminInclusive;
             }
 
             final boolean allRange = sliceStartIndexInclusive == 0 && sliceEndIndexInclusive == (conjCompound.term.length - 1);
@@ -82,6 +82,10 @@ public final class SyllogisticRules {
             budget2 = BudgetFunctions.forward(truth2, nal);
         }
 
+        if (!nal.admissible(truth1, budget1, false) && !nal.admissible(truth2, budget2, false)) {
+            return;
+        }
+
         final Statement content = (Statement) sentence.term;
         final Statement content1 = Statement.make(content, term1, term2, order);
         final Statement content2 = Statement.make(content, term2, term1, reverseOrder(order));
@@ -148,17 +152,26 @@ public final class SyllogisticRules {
         
         if(term1.imagination != null && term2.imagination != null) {
             final TruthValue T = term1.imagination.AbductionOrComparisonTo(term2.imagination, true);
-            nal.doublePremiseTask(
-                Statement.make(NativeOperator.SIMILARITY, term1, term2, TemporalRules.ORDER_NONE), 
-                    T, BudgetFunctions.forward(T, nal),false, false);   
+            final BudgetValue B = BudgetFunctions.forward(T, nal);
+            if (nal.admissible(T, B, false)) {
+                nal.doublePremiseTask(
+                    Statement.make(NativeOperator.SIMILARITY, term1, term2, TemporalRules.ORDER_NONE), 
+                        T, B,false, false);
+            }
             final TruthValue T2 = term1.imagination.AbductionOrComparisonTo(term2.imagination, false);
-            nal.doublePremiseTask(
-                Statement.make(NativeOperator.INHERITANCE, term1, term2, TemporalRules.ORDER_NONE), 
-                    T2, BudgetFunctions.forward(T2, nal),false, false);   
+            final BudgetValue B2 = BudgetFunctions.forward(T2, nal);
+            if (nal.admissible(T2, B2, false)) {
+                nal.doublePremiseTask(
+                    Statement.make(NativeOperator.INHERITANCE, term1, term2, TemporalRules.ORDER_NONE), 
+                        T2, B2,false, false);
+            }
             final TruthValue T3 = term2.imagination.AbductionOrComparisonTo(term1.imagination, false);
-            nal.doublePremiseTask(
-                Statement.make(NativeOperator.INHERITANCE, term2, term1, TemporalRules.ORDER_NONE), 
-                    T3, BudgetFunctions.forward(T3, nal),false, false);   
+            final BudgetValue B3 = BudgetFunctions.forward(T3, nal);
+            if (nal.admissible(T3, B3, false)) {
+                nal.doublePremiseTask(
+                    Statement.make(NativeOperator.INHERITANCE, term2, term1, TemporalRules.ORDER_NONE), 
+                        T3, B3,false, false);
+            }
             return true; //no need for other syllogistic inference, it were sensational terms,
         }           //but it would not hurt to allow it either.. but why afford tasks that summarize
                     //so little evidence in comparison to the amount summarized by the array comparison.
@@ -177,17 +190,23 @@ public final class SyllogisticRules {
         
         if (order != ORDER_INVALID) {
             nal.getTheNewStamp().setOccurrenceTime(occurrence_time1);
-            nal.doublePremiseTask(
-                    Statement.make(taskContent, term1, term2, order), 
-                        truth1, budget1,false, false);
+            if (nal.admissible(truth1, budget1, false)) {
+                nal.doublePremiseTask(
+                        Statement.make(taskContent, term1, term2, order), 
+                            truth1, budget1,false, false);
+            }
             nal.getTheNewStamp().setOccurrenceTime(occurrence_time2);
-            nal.doublePremiseTask(
-                    Statement.make(taskContent, term2, term1, reverseOrder(order)), 
-                        truth2, budget2,false, false);
+            if (nal.admissible(truth2, budget2, false)) {
+                nal.doublePremiseTask(
+                        Statement.make(taskContent, term2, term1, reverseOrder(order)), 
+                            truth2, budget2,false, false);
+            }
             nal.getTheNewStamp().setOccurrenceTime(occurrence_time1);
-            nal.doublePremiseTask(
-                    Statement.makeSym(taskContent, term1, term2, order), 
-                        truth3, budget3,false, false);
+            if (nal.admissible(truth3, budget3, false)) {
+                nal.doublePremiseTask(
+                        Statement.makeSym(taskContent, term1, term2, order), 
+                            truth3, budget3,false, false);
+            }
         }
         if(nal.narParameters.BREAK_NAL_HOL_BOUNDARY && order1==order2 && taskContent.isHigherOrderStatement() && sentence2.term.isHigherOrderStatement()) { //
             /* Bridge to higher order statements:
@@ -267,7 +286,9 @@ public final class SyllogisticRules {
         }
         
         //nal.mem().logic.ANALOGY.commit();
-        nal.doublePremiseTask( Statement.make(st, subj, pred, order), truth, budget,false, false); //(allow overlap) but not needed here, isn't detachment
+        if (nal.admissible(truth, budget, false)) {
+            nal.doublePremiseTask( Statement.make(st, subj, pred, order), truth, budget,false, false); //(allow overlap) but not needed here, isn't detachment
+        }
     }
 
     /**
@@ -319,8 +340,10 @@ public final class SyllogisticRules {
                 order=sentence.term.getTemporalOrder();
             }
         }
-        final Statement s=Statement.make(higherOrder ? NativeOperator.EQUIVALENCE : NativeOperator.SIMILARITY, term1, term2, order);
-        nal.doublePremiseTask( s, truth, budget,false, false); //(allow overlap) but not needed here, isn't detachment
+        if (nal.admissible(truth, budget, false)) {
+            final Statement s=Statement.make(higherOrder ? NativeOperator.EQUIVALENCE : NativeOperator.SIMILARITY, term1, term2, order);
+            nal.doublePremiseTask( s, truth, budget,false, false); //(allow overlap) but not needed here, isn't detachment
+        }
         
         if(nal.narParameters.BREAK_NAL_HOL_BOUNDARY && !sentence.term.hasVarIndep() && (st instanceof Equivalence) && order1==order2 && belief.term.isHigherOrderStatement() && sentence.term.isHigherOrderStatement()) {
            
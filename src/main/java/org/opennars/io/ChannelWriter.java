@@ -0,0 +1,133 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered binary writer on top of a NIO channel
+ *
+ * Integers are written as LEB128 varints (zigzag for signed values), floats as raw 4 byte IEEE values
+ */
+public class ChannelWriter implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    public ChannelWriter(final WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelWriter(final WritableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public ChannelWriter(final OutputStream out) {
+        this(Channels.newChannel(out));
+    }
+
+    private void ensure(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    public void writeByte(final int b) throws IOException {
+        ensure(1);
+        buffer.put((byte) b);
+    }
+
+    public void writeInt(final int v) throws IOException {
+        ensure(4);
+        buffer.putInt(v);
+    }
+
+    public void writeFloat(final float v) throws IOException {
+        ensure(4);
+        buffer.putFloat(v);
+    }
+
+    /** unsigned varint, 1 byte for values below 128 */
+    public void writeVarLong(long v) throws IOException {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    public void writeVarInt(final int v) throws IOException {
+        writeVarLong(v & 0xFFFFFFFFL);
+    }
+
+    /** zigzag encoded varint, keeps small negative values (like -1 or ETERNAL deltas) short */
+    public void writeSignedVarLong(final long v) throws IOException {
+        writeVarLong((v << 1) ^ (v >> 63));
+    }
+
+    public void writeString(final CharSequence s) throws IOException {
+        final byte[] bytes = s.toString().getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        writeBytes(bytes);
+    }
+
+    public void writeBytes(final byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            final int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+    /** writes the buffered bytes to the channel */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** flushes and, for file channels, forces the content to the storage device */
+    public void sync() throws IOException {
+        flush();
+        if (channel instanceof FileChannel) {
+            ((FileChannel) channel).force(false);
+        } else if (channel instanceof UninterruptibleFileChannel) {
+            ((UninterruptibleFileChannel) channel).force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
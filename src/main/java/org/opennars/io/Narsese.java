@@ -37,13 +37,32 @@ import static org.opennars.operator.Operation.make;
 
 /**
  * Utility methods for working and reacting to Narsese input.
- * This will eventually be integrated with NarseseParser for systematic
- * parsing and prediction of input.
+ * <p>
+ * Parsing is done in a single pass over the input, by position, without slicing it into substrings
+ * first. An instance keeps the parse position, so it is not thread-safe but can be reused for any
+ * number of lines, see {@link Nar#narsese()}.
  */
 public class Narsese implements Serializable {
     
     public final Memory memory;
 
+    /** statement relations, all of them are 3 characters long */
+    private static final NativeOperator[] relations;
+    static {
+        final List<NativeOperator> r = new ArrayList<>();
+        for (final NativeOperator o : NativeOperator.values()) {
+            if (o.relation) {
+                r.add(o);
+            }
+        }
+        relations = r.toArray(new NativeOperator[0]);
+    }
+
+    /* parse state: the input, the current position and the end of the parsed region */
+    private transient CharSequence in;
+    private transient int pos;
+    private transient int end;
+
                 
     /**
      * All kinds of invalid addInput lines
@@ -103,31 +122,74 @@ public class Narsese implements Serializable {
             final int j = buffer.lastIndexOf(valueOf('['));
             buffer.delete(j-1, buffer.length());
         }
-        return parseTask(buffer.toString().trim());
+        return parseTask(buffer);
     }
     
     /**
      * Enter a new Task in String into the memory, called from InputWindow or
      * locally.
+     * <p>
+     * The task has the form: [$budget$] term punctuation [tense] [%truth%]
      *
      * @param s the single-line addInput String
      * @return An experienced task
      */    
-    public Task parseTask(final String s) throws InvalidInputException {
-        final StringBuilder buffer = new StringBuilder(Texts.escape(s));
+    public Task parseTask(final CharSequence s) throws InvalidInputException {
+        int start = skipSpaces(s, 0, s.length());
+        int stop = trimEnd(s, start, s.length());
+        if (start == stop) {
+            throw new InvalidInputException("empty task");
+        }
         
-        final String budgetString = getBudgetString(buffer);
-        final String truthString = getTruthString(buffer);
-        final Tense tense = parseTense(buffer);
-        final String str = buffer.toString().trim();
-        final int last = str.length() - 1;
-        final char punc = str.charAt(last);
+        //budget prefix
+        int budgetStart = -1, budgetEnd = -1;
+        if (s.charAt(start) == BUDGET_VALUE_MARK) {
+            final int i = indexOf(s, BUDGET_VALUE_MARK, start + 1, stop);
+            if (i < 0) {
+                throw new InvalidInputException("missing budget closer");
+            }
+            budgetStart = skipSpaces(s, start + 1, i);
+            budgetEnd = trimEnd(s, budgetStart, i);
+            if (budgetStart == budgetEnd) {
+                throw new InvalidInputException("empty budget");
+            }
+            start = i + 1;
+        }
+        
+        //truth postfix
+        int truthStart = -1, truthEnd = -1;
+        if (stop > start && s.charAt(stop - 1) == TRUTH_VALUE_MARK) {
+            final int first = indexOf(s, TRUTH_VALUE_MARK, start, stop);
+            if (first == stop - 1) { // no matching closer
+                throw new InvalidInputException("missing truth mark");
+            }
+            truthStart = skipSpaces(s, first + 1, stop - 1);
+            truthEnd = trimEnd(s, truthStart, stop - 1);
+            if (truthStart == truthEnd) {
+                throw new InvalidInputException("empty truth");
+            }
+            stop = first;
+        }
+        
+        //tense, between punctuation and truth
+        Tense tense = Tense.Eternal;
+        final int tenseStart = indexOf(s, TENSE_MARK.charAt(0), start, stop);
+        if (tenseStart > start) {
+            tense = parseTense(s, tenseStart, stop);
+            stop = tenseStart;
+        }
+        
+        stop = trimEnd(s, start, stop);
+        if (start == stop) {
+            throw new InvalidInputException("missing punctuation");
+        }
+        final char punc = s.charAt(stop - 1);
         
         final Stamp stamp = new Stamp(-1 /* if -1, will be set right before the Task is input */,
                 tense, memory.newStampSerial(), this.memory.narParameters.DURATION);
 
-        final TruthValue truth = parseTruth(truthString, punc);
-        final Term content = parseTerm(str.substring(0, last));
+        final TruthValue truth = parseTruth(s, truthStart, truthEnd, punc);
+        final Term content = parseTerm(s, start, stop - 1);
         if (content == null) throw new InvalidInputException("Content term missing");
             
         final Sentence sentence = new Sentence(
@@ -139,67 +201,21 @@ public class Narsese implements Serializable {
         //if ((content instanceof Conjunction) && Variable.containVarDep(content.getName())) {
         //    sentence.setRevisible(false);
         //}
-        final BudgetValue budget = parseBudget(budgetString, punc, truth);
+        final BudgetValue budget = parseBudget(s, budgetStart, budgetEnd, punc, truth);
         return new Task(sentence, budget, Task.EnumType.INPUT);
     }
 
     /* ---------- react values ---------- */
     /**
-     * Return the prefix of a task symbol that contains a BudgetValue
-     *
-     * @param s the addInput in a StringBuilder
-     * @return a String containing a BudgetValue
-     * @throws InvalidInputException if the addInput cannot be parsed into a BudgetValue
-     */
-    private static String getBudgetString(final StringBuilder s) throws InvalidInputException {
-        if (s.length() == 0 || s.charAt(0) != BUDGET_VALUE_MARK) {
-            return null;
-        }
-        final int i = s.indexOf(valueOf(BUDGET_VALUE_MARK), 1);    // looking for the end
-        if (i < 0) {
-            throw new InvalidInputException("missing budget closer");
-        }
-        final String budgetString = s.substring(1, i).trim();
-        if (budgetString.length() == 0) {
-            throw new InvalidInputException("empty budget");
-        }
-        s.delete(0, i + 1);
-        return budgetString;
-    }
-
-    /**
-     * Return the postfix of a task symbol that contains a TruthValue
-     *
-     * @return a String containing a TruthValue
-     * @param s the addInput in a StringBuilder
-     * @throws InvalidInputException if the addInput cannot be parsed into a TruthValue
-     */
-    private static String getTruthString(final StringBuilder s) throws InvalidInputException {
-        final int last = s.length() - 1;
-        if (s.length() == 0 || s.charAt(last) != TRUTH_VALUE_MARK) {       // use default
-            return null;
-        }
-        final int first = s.indexOf(valueOf(TRUTH_VALUE_MARK));    // looking for the beginning
-        if (first == last) { // no matching closer
-            throw new InvalidInputException("missing truth mark");
-        }
-        final String truthString = s.substring(first + 1, last).trim();
-        if (truthString.length() == 0) {                // empty usage
-            throw new InvalidInputException("empty truth");
-        }
-        s.delete(first, last + 1);                 // remaining addInput to be processed outside
-        s.trimToSize();
-        return truthString;
-    }
-
-    /**
-     * react the addInput String into a TruthValue (or DesireValue)
+     * react the addInput into a TruthValue (or DesireValue)
      *
-     * @param s addInput String
+     * @param s addInput
+     * @param start begin of the truth value, or -1 to use the default
+     * @param stop end of the truth value
      * @param type Task type
      * @return the addInput TruthValue
      */
-    private TruthValue parseTruth(final String s, final char type) {
+    private TruthValue parseTruth(final CharSequence s, final int start, final int stop, final char type) {
         if ((type == QUESTION_MARK) || (type == QUEST_MARK)) {
             return null;
         }
@@ -208,28 +224,30 @@ public class Narsese implements Serializable {
         if(type==GOAL_MARK) {
             confidence = memory.narParameters.DEFAULT_GOAL_CONFIDENCE;
         }
-        if (s != null) {
-            final int i = s.indexOf(VALUE_SEPARATOR);
+        if (start >= 0) {
+            final int i = indexOf(s, VALUE_SEPARATOR, start, stop);
             if (i < 0) {
-                frequency = parseFloat(s);
+                frequency = parseNumber(s, start, stop);
             } else {
-                frequency = parseFloat(s.substring(0, i));
-                confidence = parseFloat(s.substring(i + 1));
+                frequency = parseNumber(s, start, i);
+                confidence = parseNumber(s, i + 1, stop);
             }
         }
         return new TruthValue(frequency, confidence, memory.narParameters);
     }
 
     /**
-     * react the addInput String into a BudgetValue
+     * react the addInput into a BudgetValue
      *
+     * @param s addInput
+     * @param start begin of the budget value, or -1 to use the default
+     * @param stop end of the budget value
      * @param truth the TruthValue of the task
-     * @param s addInput String
      * @param punctuation Task punctuation
      * @return the addInput BudgetValue
      * @throws InvalidInputException If the String cannot be parsed into a BudgetValue
      */
-    private BudgetValue parseBudget(final String s, final char punctuation, final TruthValue truth) throws InvalidInputException {
+    private BudgetValue parseBudget(final CharSequence s, final int start, final int stop, final char punctuation, final TruthValue truth) throws InvalidInputException {
         float priority, durability;
         switch (punctuation) {
             case JUDGMENT_MARK:
@@ -251,22 +269,26 @@ public class Narsese implements Serializable {
             default:
                 throw new InvalidInputException("unknown punctuation: '" + punctuation + "'");
         }
-        if (s != null) { // overrite default
-            final int i = s.indexOf(VALUE_SEPARATOR);
+        if (start >= 0) { // overrite default
+            final int i = indexOf(s, VALUE_SEPARATOR, start, stop);
             if (i < 0) {        // default durability
-                priority = parseFloat(s);
+                priority = parseNumber(s, start, stop);
             } else {
-                int i2 = s.indexOf(VALUE_SEPARATOR, i+1);
+                int i2 = indexOf(s, VALUE_SEPARATOR, i + 1, stop);
                 if (i2 == -1)
-                    i2 = s.length();
-                priority = parseFloat(s.substring(0, i));
-                durability = parseFloat(s.substring(i + 1, i2));
+                    i2 = stop;
+                priority = parseNumber(s, start, i);
+                durability = parseNumber(s, i + 1, i2);
             }
         }
         final float quality = (truth == null) ? 1 : truthToQuality(truth);
         return new BudgetValue(priority, durability, quality, memory.narParameters);
     }
 
+    private static float parseNumber(final CharSequence s, final int start, final int stop) {
+        return parseFloat(s.subSequence(start, stop).toString());
+    }
+
     /**
      * Recognize the tense of an addInput sentence
      * @param s the addInput in a StringBuilder
@@ -274,12 +296,23 @@ public class Narsese implements Serializable {
      */
     public static Tense parseTense(final StringBuilder s) {
         final int i = s.indexOf(Symbols.TENSE_MARK);
-        String t = "";
+        Tense tense = Tense.Eternal;
         if (i > 0) {
-            t = s.substring(i).trim();
+            tense = parseTense(s, i, s.length());
             s.delete(i, s.length());
         }
-        return Tense.tense(t);
+        return tense;
+    }
+
+    private static Tense parseTense(final CharSequence s, final int start, final int stop) {
+        final int first = skipSpaces(s, start, stop);
+        final int last = trimEnd(s, first, stop);
+        for (final Tense t : Tense.values()) {
+            if (t.symbol.length() == last - first && regionMatches(s, first, t.symbol)) {
+                return t;
+            }
+        }
+        return Tense.Eternal;
     }
 
     
@@ -297,305 +330,298 @@ public class Narsese implements Serializable {
      * @param s the String to be parsed
      * @return the Term generated from the String
      */
-    public Term parseTerm(String s) throws InvalidInputException {
-        s = s.trim();
-        
-        if (s.length() == 0) return null;
-        
-        final int index = s.length() - 1;
-        final char first = s.charAt(0);
-        final char last = s.charAt(index);
-
-        final NativeOperator opener = getOpener(first);
-        if (opener!=null) {
-            switch (opener) {
-                case COMPOUND_TERM_OPENER:
-                    if (last == COMPOUND_TERM_CLOSER.ch) {
-                       return parseCompoundTerm(s.substring(1, index));
-                    } else {
-                        throw new InvalidInputException("missing CompoundTerm closer");
-                    }
-                case SET_EXT_OPENER:
-                    if (last == SET_EXT_CLOSER.ch) {
-                        return SetExt.make(parseArguments(s.substring(1, index) + ARGUMENT_SEPARATOR));
-                    } else {
-                        throw new InvalidInputException("missing ExtensionSet closer");
-                    }                    
-                case SET_INT_OPENER:
-                    if (last == SET_INT_CLOSER.ch) {
-                        return SetInt.make(parseArguments(s.substring(1, index) + ARGUMENT_SEPARATOR));
-                    } else {
-                        throw new InvalidInputException("missing IntensionSet closer");
-                    }   
-                case STATEMENT_OPENER:
-                    if (last == STATEMENT_CLOSER.ch) {
-                        return parseStatement(s.substring(1, index));
-                    } else {
-                        throw new InvalidInputException("missing Statement closer");
-                    }
+    public Term parseTerm(final CharSequence s) throws InvalidInputException {
+        return parseTerm(s, 0, s.length());
+    }
+
+    /**
+     * Parses the term in the region [start, stop) of the input
+     *
+     * @return the term, or null if the region is blank
+     */
+    public Term parseTerm(final CharSequence s, final int start, final int stop) throws InvalidInputException {
+        final CharSequence previousIn = in;
+        final int previousPos = pos, previousEnd = end;
+        in = s;
+        pos = skipSpaces(s, start, stop);
+        end = stop;
+        try {
+            if (pos == end) {
+                return null;
             }
-        }
-        else if (MiscFlags.FUNCTIONAL_OPERATIONAL_FORMAT) {
-            
-            //parse functional operation:
-            //  function()
-            //  function(a)
-            //  function(a,b)
-            
-            //test for existence of matching parentheses at beginning at index!=0
-            final int pOpen = s.indexOf('(');
-            final int pClose = s.lastIndexOf(')');
-            if ((pOpen!=-1) && (pClose!=-1) && (pClose==s.length()-1)) {
-                
-                final String operatorString = Operator.addPrefixIfMissing( s.substring(0, pOpen) );
-                                
-                final Operator operator = memory.getOperator(operatorString);
-                
-                if (operator == null) {
-                    //???
-                    throw new InvalidInputException("Unknown operator: " + operatorString);
-                }
-                
-                final String argString = s.substring(pOpen+1, pClose+1);
-                
-                
-                final Term[] a;
-                if (argString.length() > 1) {                
-                    final List<Term> args = parseArguments(argString);
-                    a = args.toArray(new Term[0]);
-                }
-                else {
-                    //void "()" arguments, default to (SELF)
-                    a = Operation.SELF_TERM_ARRAY;
-                }                                                            
-                
-                final Operation o = Operation.make(operator, a, true);
-                return o;                
+            final Term t = term();
+            skipSpaces();
+            if (pos != end) {
+                throw new InvalidInputException("invalid term: unexpected '" + in.charAt(pos) + "' in " + s.subSequence(start, stop));
             }
+            return t;
+        } finally {
+            in = previousIn;
+            pos = previousPos;
+            end = previousEnd;
         }
+    }
 
-        //if no opener, parse the term            
-        return parseAtomicTerm(s);
-
+    private Term term() throws InvalidInputException {
+        skipSpaces();
+        if (pos >= end) {
+            throw new InvalidInputException("missing term");
+        }
+        final char c = in.charAt(pos);
+        if (c == COMPOUND_TERM_OPENER.ch) {
+            pos++;
+            return compoundTerm();
+        } else if (c == SET_EXT_OPENER.ch) {
+            pos++;
+            return SetExt.make(arguments(SET_EXT_CLOSER.ch));
+        } else if (c == SET_INT_OPENER.ch) {
+            pos++;
+            return SetInt.make(arguments(SET_INT_CLOSER.ch));
+        } else if (c == STATEMENT_OPENER.ch) {
+            pos++;
+            return statement();
+        }
+        return atomicTerm();
     }
 
-//    private static void showWarning(String message) {
-//		new TemporaryFrame( message + "\n( the faulty line has been kept in the addInput window )",
-//				40000, TemporaryFrame.WARNING );
-//    }
     /**
-     * Parse a Term that has no internal structure.
+     * Parse a Term that has no internal structure, or an operation in functional form.
      * <p>
      * The Term can be a constant or a variable.
      *
-     * @param s0 the String to be parsed
-     * @throws InvalidInputException the String cannot be parsed into a Term
-     * @return the Term generated from the String
+     * @throws InvalidInputException the input cannot be parsed into a Term
+     * @return the Term generated from the input
      */
-    private Term parseAtomicTerm(final String s0) throws InvalidInputException {
-        final String s = s0.trim();
-        if (s.length() == 0) {
+    private Term atomicTerm() throws InvalidInputException {
+        final int start = pos;
+        boolean quoted = false, inQuotes = false;
+        int brackets = 0;
+        while (pos < end) {
+            final char c = in.charAt(pos);
+            if (c == QUOTE) {
+                quoted = true;
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                if (c == SET_INT_OPENER.ch && pos > start) { //index of a term, like p[1,2]
+                    brackets++;
+                } else if (c == SET_INT_CLOSER.ch && brackets > 0) {
+                    brackets--;
+                } else if (brackets == 0 && isTermDelimiter(c)) {
+                    break;
+                }
+            }
+            pos++;
+        }
+        if (pos == start) {
             throw new InvalidInputException("missing term");
         }
+        String name = in.subSequence(start, pos).toString();
+        if (quoted) {
+            name = Texts.escape(name).toString();
+        }
         
-        final Operator op = memory.getOperator(s0);
-        if(op != null) {
-            return op;
+        if (pos < end && in.charAt(pos) == COMPOUND_TERM_OPENER.ch && MiscFlags.FUNCTIONAL_OPERATIONAL_FORMAT) {
+            
+            //parse functional operation:
+            //  function()
+            //  function(a)
+            //  function(a,b)
+            
+            final String operatorString = Operator.addPrefixIfMissing(name);
+            final Operator operator = memory.getOperator(operatorString);
+            if (operator == null) {
+                throw new InvalidInputException("Unknown operator: " + operatorString);
+            }
+            pos++;
+            skipSpaces();
+            
+            final Term[] a;
+            if (pos < end && in.charAt(pos) == COMPOUND_TERM_CLOSER.ch) {
+                //void "()" arguments, default to (SELF)
+                pos++;
+                a = Operation.SELF_TERM_ARRAY;
+            }
+            else {
+                a = arguments(COMPOUND_TERM_CLOSER.ch);
+            }
+            return Operation.make(operator, a, true);
         }
         
-        if (s.contains(" ")) { // invalid characters in a name
-            throw new InvalidInputException("invalid term: " + s);
+        final Operator op = memory.getOperator(name);
+        if(op != null) {
+            return op;
         }
         
-        final char c = s.charAt(0);
+        final char c = name.charAt(0);
         if (c == Symbols.INTERVAL_PREFIX) {
-            return Interval.interval(s);
+            return Interval.interval(name);
         }
  
-        if (containVar(s) && !s.equals("#")) {
-            return new Variable(s);
+        if (containVar(name) && !name.equals("#")) {
+            return new Variable(name);
         } else {
-            return Term.get(s);
+            return Term.get(name);
         }
     }
 
+    /** characters which end an atomic term: white space, separators, closers and relations */
+    private boolean isTermDelimiter(final char c) {
+        if (Character.isWhitespace(c)) {
+            return true;
+        }
+        switch (c) {
+            case ARGUMENT_SEPARATOR:
+            case '(':
+            case ')':
+            case '}':
+            case ']':
+            case '>':
+                return true;
+            default:
+                return relation() != null;
+        }
+    }
+
+    /** @return the relation starting at the current position, or null */
+    private NativeOperator relation() {
+        if (pos + 3 > end) {
+            return null;
+        }
+        for (final NativeOperator r : relations) {
+            if (regionMatches(in, pos, r.symbol)) {
+                return r;
+            }
+        }
+        return null;
+    }
+
     /**
-     * Parse a String to create a Statement.
+     * Parse a Statement, after its opener.
      *
-     * @return the Statement generated from the String
-     * @param s0 The addInput String to be parsed
-     * @throws InvalidInputException the String cannot be parsed into a Term
+     * @return the Statement generated from the input
+     * @throws InvalidInputException the input cannot be parsed into a Term
      */
-    private Statement parseStatement(final String s0) throws InvalidInputException {
-        final String s = s0.trim();
-        final int i = topRelation(s);
-        if (i < 0) {
-            throw new InvalidInputException("invalid statement: topRelation(s) < 0");
-        }
-        final String relation = s.substring(i, i + 3);
-        final Term subject = parseTerm(s.substring(0, i));
-        final Term predicate = parseTerm(s.substring(i + 3));
-        final Statement t = make(getRelation(relation), subject, predicate, false, 0);
+    private Statement statement() throws InvalidInputException {
+        final Term subject = term();
+        skipSpaces();
+        final NativeOperator relation = relation();
+        if (relation == null) {
+            throw new InvalidInputException("invalid statement: missing relation");
+        }
+        pos += 3;
+        final Term predicate = term();
+        skipSpaces();
+        if (pos >= end || in.charAt(pos) != STATEMENT_CLOSER.ch) {
+            throw new InvalidInputException("missing Statement closer");
+        }
+        pos++;
+        final Statement t = make(relation, subject, predicate, false, 0);
         if (t == null) {
-            throw new InvalidInputException("invalid statement: statement unable to create: " + getOperator(relation) + " " + subject + " " + predicate);
+            throw new InvalidInputException("invalid statement: statement unable to create: " + relation + " " + subject + " " + predicate);
         }
         return t;
     }
 
     /**
-     * Parse a String to create a CompoundTerm.
+     * Parse a CompoundTerm, after its opener.
      *
-     * @return the Term generated from the String
-     * @param s0 The String to be parsed
-     * @throws InvalidInputException the String cannot be parsed into a Term
+     * @return the Term generated from the input
+     * @throws InvalidInputException the input cannot be parsed into a Term
      */
-    private Term parseCompoundTerm(final String s0) throws InvalidInputException {
-        final String s = s0.trim();
-        if (s.isEmpty()) {
-            throw new InvalidInputException("Empty compound term: " + s);
+    private Term compoundTerm() throws InvalidInputException {
+        final int opStart = skipSpaces();
+        final int separator = indexOf(in, ARGUMENT_SEPARATOR, pos, end);
+        if (separator == -1) {
+            throw new InvalidInputException("Invalid compound term (missing ARGUMENT_SEPARATOR): " + in.subSequence(opStart, end));
         }
-        final int firstSeparator = s.indexOf(ARGUMENT_SEPARATOR);
-        if (firstSeparator == -1) {
-            throw new InvalidInputException("Invalid compound term (missing ARGUMENT_SEPARATOR): " + s);
+        final int opEnd = trimEnd(in, opStart, separator);
+        if (opStart == opEnd) {
+            throw new InvalidInputException("Empty compound term operator");
         }
-                
-        final String op = (firstSeparator < 0) ? s : s.substring(0, firstSeparator).trim();
-        final NativeOperator oNative = getOperator(op);
-        final Operator oRegistered = memory.getOperator(op);
+        
+        final NativeOperator oNative = (opEnd - opStart == 1) ? getOperator(in.charAt(opStart)) : getOperator(in.subSequence(opStart, opEnd).toString());
+        final Operator oRegistered = oNative == null ? memory.getOperator(in.subSequence(opStart, opEnd).toString()) : null;
         
         if ((oRegistered==null) && (oNative == null)) {
-            throw new InvalidInputException("Unknown operator: " + op);
+            throw new InvalidInputException("Unknown operator: " + in.subSequence(opStart, opEnd));
         }
-
-        final List<Term> arg = (firstSeparator < 0) ? new ArrayList<>(0)
-                : parseArguments(s.substring(firstSeparator + 1) + ARGUMENT_SEPARATOR);
-
-        final Term[] argA = arg.toArray(new Term[0]);
         
-        final Term t;
+        pos = separator + 1;
+        final Term[] argA = arguments(COMPOUND_TERM_CLOSER.ch);
         
         if (oNative!=null) {
-            t = Terms.term(oNative, argA);
-        }
-        else if (oRegistered!=null) {
-            t = make(oRegistered, argA, true);
+            return Terms.term(oNative, argA);
         }
-        else {
-            throw new InvalidInputException("Invalid compound term");
-        }
-        
-        return t;
+        return make(oRegistered, argA, true);
     }
 
     /**
-     * Parse a String into the argument get of a CompoundTerm.
+     * Parse the comma separated arguments up to and including the closer.
      *
-     * @return the arguments in an List
-     * @param s0 The String to be parsed
-     * @throws InvalidInputException the String cannot be parsed into an argument get
+     * @return the arguments
+     * @param closer The character closing the argument list
+     * @throws InvalidInputException the input cannot be parsed into arguments
      */
-    private List<Term> parseArguments(final String s0) throws InvalidInputException {
-        final String s = s0.trim();
-        final List<Term> list = new ArrayList<>();
-        int start = 0;
-        int end = 0;
-        Term t;
-        while (end < s.length() - 1) {
-            end = nextSeparator(s, start);
-            if (end == start)
+    private Term[] arguments(final char closer) throws InvalidInputException {
+        final List<Term> list = new ArrayList<>(4);
+        while (true) {
+            list.add(term());     // recursive call
+            skipSpaces();
+            if (pos >= end) {
+                throw new InvalidInputException("missing closer '" + closer + "'");
+            }
+            final char c = in.charAt(pos++);
+            if (c == closer) {
                 break;
-            t = parseTerm(s.substring(start, end));     // recursive call
-            list.add(t);
-            start = end + 1;
-        }
-        if (list.isEmpty()) {
-            throw new InvalidInputException("null argument");
+            }
+            if (c != ARGUMENT_SEPARATOR) {
+                throw new InvalidInputException("unexpected '" + c + "', expected '" + closer + "'");
+            }
         }
-        return list;
+        return list.toArray(new Term[0]);
     }
 
-    /* ---------- locate top-level substring ---------- */
-    /**
-     * Locate the first top-level separator in a CompoundTerm
-     *
-     * @return the index of the next seperator in a String
-     * @param s The String to be parsed
-     * @param first The starting index
-     */
-    private static int nextSeparator(final String s, final int first) {
-        int levelCounter = 0;
-        int i = first;
-        while (i < s.length() - 1) {
-            if (isOpener(s, i)) {
-                levelCounter++;
-            } else if (isCloser(s, i)) {
-                levelCounter--;
-            } else if (s.charAt(i) == ARGUMENT_SEPARATOR) {
-                if (levelCounter == 0) {
-                    break;
-                }
-            }
+    /* ---------- scanning ---------- */
+
+    private int skipSpaces() {
+        pos = skipSpaces(in, pos, end);
+        return pos;
+    }
+
+    private static int skipSpaces(final CharSequence s, int i, final int stop) {
+        while (i < stop && Character.isWhitespace(s.charAt(i))) {
             i++;
         }
         return i;
     }
 
-    /**
-     * locate the top-level getRelation in a statement
-     *
-     * @return the index of the top-level getRelation
-     * @param s The String to be parsed
-     */
-    private static int topRelation(final String s) {      // need efficiency improvement
-        int levelCounter = 0;
-        int i = 0;
-        while (i < s.length() - 3) {    // don't need to check the last 3 characters
-            if ((levelCounter == 0) && (isRelation(s.substring(i, i + 3)))) {
+    /** @return the end of the region without trailing white space */
+    private static int trimEnd(final CharSequence s, final int start, int stop) {
+        while (stop > start && Character.isWhitespace(s.charAt(stop - 1))) {
+            stop--;
+        }
+        return stop;
+    }
+
+    private static int indexOf(final CharSequence s, final char c, final int start, final int stop) {
+        for (int i = start; i < stop; i++) {
+            if (s.charAt(i) == c) {
                 return i;
             }
-            if (isOpener(s, i)) {
-                levelCounter++;
-            } else if (isCloser(s, i)) {
-                levelCounter--;
-            }
-            i++;
         }
         return -1;
     }
 
-    /* ---------- recognize symbols ---------- */
-    /**
-     * Check CompoundTerm opener symbol
-     *
-     * @return if the given String is an opener symbol
-     * @param s The String to be checked
-     * @param i The starting index
-     */
-    private static boolean isOpener(final String s, final int i) {
-        final char c = s.charAt(i);
-        
-        final boolean b = (getOpener(c)!=null);
-        if (!b)
-            return false;
-        
-        return i + 3 > s.length() || !isRelation(s.substring(i, i + 3));
-    }
-
-    /**
-     * Check CompoundTerm closer symbol
-     *
-     * @return if the given String is a closer symbol
-     * @param s The String to be checked
-     * @param i The starting index
-     */
-    private static boolean isCloser(final String s, final int i) {
-        final char c = s.charAt(i);
-
-        final boolean b = (getCloser(c)!=null);
-        if (!b)
+    private static boolean regionMatches(final CharSequence s, final int start, final String x) {
+        if (start + x.length() > s.length()) {
             return false;
-        
-        return i < 2 || !isRelation(s.substring(i - 2, i + 1));
+        }
+        for (int i = 0; i < x.length(); i++) {
+            if (s.charAt(start + i) != x.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static boolean possiblyNarsese(final String s) {
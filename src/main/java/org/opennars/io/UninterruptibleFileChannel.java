@@ -0,0 +1,109 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * File channel for the files written by the reasoning thread, which unlike a
+ * {@link java.nio.channels.FileChannel} is not closed when that thread is interrupted
+ * <p>
+ * Nar.stop() and the pacers interrupt the cycling thread, an interrupt in the middle
+ * of a journal or archive write would otherwise close the file for good.
+ */
+public class UninterruptibleFileChannel implements WritableByteChannel {
+
+    private final RandomAccessFile file;
+    private final byte[] chunk = new byte[8192];
+    private boolean open = true;
+
+    /**
+     * @param truncate whether existing content is discarded, otherwise writing continues at its end
+     */
+    public UninterruptibleFileChannel(final Path path, final boolean truncate) throws IOException {
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        if (truncate) {
+            file.setLength(0);
+        }
+        file.seek(file.length());
+    }
+
+    /** writes at the current position, which is the end of the file unless {@link #write(ByteBuffer, long)} moved it */
+    @Override
+    public synchronized int write(final ByteBuffer src) throws IOException {
+        ensureOpen();
+        final int n = src.remaining();
+        while (src.hasRemaining()) {
+            final int len = Math.min(chunk.length, src.remaining());
+            src.get(chunk, 0, len);
+            file.write(chunk, 0, len);
+        }
+        return n;
+    }
+
+    /** writes the remaining bytes of the buffer at the position */
+    public synchronized void write(final ByteBuffer src, final long position) throws IOException {
+        ensureOpen();
+        file.seek(position);
+        write(src);
+    }
+
+    /** fills the remaining space of the buffer from the position */
+    public synchronized void read(final ByteBuffer dst, long position) throws IOException {
+        ensureOpen();
+        file.seek(position);
+        while (dst.hasRemaining()) {
+            final int n = file.read(chunk, 0, Math.min(chunk.length, dst.remaining()));
+            if (n < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            dst.put(chunk, 0, n);
+        }
+    }
+
+    public synchronized void truncate(final long size) throws IOException {
+        ensureOpen();
+        file.setLength(size);
+        file.seek(size);
+    }
+
+    /** forces the content to the storage device */
+    public synchronized void force() throws IOException {
+        ensureOpen();
+        file.getFD().sync();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        open = false;
+        file.close();
+    }
+}
@@ -50,6 +50,8 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     int containedTemporalRelations = -1;
     int hash;
+    /** lazily computed, see signature(); 0 when not yet computed */
+    long signature;
     private boolean normalized;
     
 
@@ -160,6 +162,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     public void invalidateName() {        
         this.name = null; //invalidate name so it will be (re-)created lazily        
+        this.signature = 0;
         for (final Term t : term) {
             if (t.hasVar())
                 if (t instanceof CompoundTerm)
@@ -397,6 +400,55 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
         return false;
     }
 
+    /**
+     * Check if make() would keep the components as they are, so that the
+     * term can be validated in place
+     * <p>
+     * Commutative terms need their components strictly sorted; in-place
+     * variable renaming can break that order.
+     *
+     * @return Whether the components are in canonical form
+     */
+    protected boolean hasCanonicalComponents() {
+        if (isCommutative()) {
+            for (int i = 1; i < term.length; i++) {
+                if (term[i - 1].compareTo(term[i]) >= 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if clone(term) would succeed, given valid components in canonical
+     * form. Subclasses answer without building the term where they can.
+     *
+     * @return Whether the term is valid
+     */
+    protected boolean validForm() {
+        return clone(term) != null;
+    }
+
+    /**
+     * Bloom signature of the compound: its operator and the signatures of its
+     * components. Reset by invalidateName() when components change in place.
+     *
+     * @return The signature
+     */
+    @Override
+    public long signature() {
+        long s = signature;
+        if (s == 0) {
+            s = signatureBit(~operator().ordinal());
+            for (final Term t : term) {
+                s |= t.signature();
+            }
+            signature = s;
+        }
+        return s;
+    }
+
     /* ----- extend Collection methods to component list ----- */
     /**
      * get the number of term
@@ -552,6 +604,9 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
      */
     @Override
     public boolean containsTerm(final Term t) {        
+        if ((t.signature() & ~signature()) != 0) {
+            return false;
+        }
         return Terms.contains(term, t);
         //return Terms.containsVariablesAsWildcard(term, t);
     }
@@ -564,6 +619,8 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
      */
     @Override
     public boolean containsTermRecursively(final Term target) { 
+        if (target != null && (target.signature() & ~signature()) != 0)
+            return false;
         if (super.containsTermRecursively(target))
             return true;
         for (final Term term : term) {            
@@ -583,9 +640,13 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
      */
     public boolean containsAllTermsOf(final Term t) {
         if (getClass() == t.getClass()) { //(t instanceof CompoundTerm) {
+            //the components may differ from t only in the operator
+            if ((signature() & ~signatureBit(~operator().ordinal()) & ~t.signature()) != 0) {
+                return false;
+            }
             return Terms.containsAll(term, ((CompoundTerm) t).term );
         } else {
-            return Terms.contains(term, t);
+            return containsTerm(t);
         }
     }
 
@@ -161,6 +161,7 @@ public class Conjunction extends CompoundTerm {
             for(int i=0;i<ct.term.length;i++) {
                 ct.term[i]=UpdateRelativeIndices(minX, minY, minsX, minsY, ct.term[i]);
             }
+            ct.signature = 0;
             return ct;
         } else {
             if(term.term_indices != null) {
@@ -384,4 +385,34 @@ public class Conjunction extends CompoundTerm {
     public boolean getIsSpatial() {
         return isSpatial;
     }
+
+    @Override
+    protected boolean hasCanonicalComponents() {
+        if (!super.hasCanonicalComponents()) {
+            return false;
+        }
+        if (temporalOrder == TemporalRules.ORDER_FORWARD && isSpatial) {
+            return term.length > 1;
+        }
+        //make() flattens, merges intervals and updates relative indices
+        for (int i = 0; i < term.length; i++) {
+            final Term t = term[i];
+            if (isConjunctionAndHasSameOrder(t, temporalOrder) && isSpatial == ((Conjunction) t).isSpatial) {
+                return false;
+            }
+            if (temporalOrder == TemporalRules.ORDER_FORWARD) {
+                if (i > 0 && (t instanceof Interval) && (term[i - 1] instanceof Interval)) {
+                    return false;
+                }
+            } else if ((t instanceof Interval) || t.term_indices != null) {
+                return false;
+            }
+        }
+        return term.length > 1;
+    }
+
+    @Override
+    protected boolean validForm() {
+        return term.length > 0;
+    }
 }
@@ -108,6 +108,24 @@ public class DifferenceInt extends CompoundTerm {
     public NativeOperator operator() {
         return NativeOperator.DIFFERENCE_INT;
     }
-}
-
 
+    @Override
+    protected boolean validForm() {
+        if (term.length == 1) {
+            return true;
+        }
+        if (term.length != 2) {
+            return false;
+        }
+        if ((term[0] instanceof SetInt) && (term[1] instanceof SetInt)) {
+            //the set difference must not be empty
+            for (final Term t : ((CompoundTerm) term[0]).term) {
+                if (!((CompoundTerm) term[1]).containsTerm(t)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return !term[0].equals(term[1]);
+    }
+}
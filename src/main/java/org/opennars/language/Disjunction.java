@@ -111,4 +111,9 @@ public class Disjunction extends CompoundTerm {
     public boolean isCommutative() {
         return true;
     }
+
+    @Override
+    protected boolean validForm() {
+        return term.length > 0;
+    }
 }
@@ -150,4 +150,22 @@ public class Equivalence extends Statement {
     public int getTemporalOrder() {
         return temporalOrder;
     }
+
+    @Override
+    protected boolean validForm() {
+        if (term.length != 2) {
+            return false;
+        }
+        final Term subject = term[0];
+        final Term predicate = term[1];
+        if (invalidStatement(subject, predicate) && temporalOrder != TemporalRules.ORDER_FORWARD && temporalOrder != TemporalRules.ORDER_CONCURRENT) {
+            return false;
+        }
+        if ((subject instanceof Implication) || (subject instanceof Equivalence)
+                || (predicate instanceof Implication) || (predicate instanceof Equivalence) ||
+                (subject instanceof Interval) || (predicate instanceof Interval)) {
+            return false;
+        }
+        return temporalOrder == TemporalRules.ORDER_FORWARD || !subject.equals(predicate);
+    }
 }
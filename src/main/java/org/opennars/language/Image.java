@@ -133,5 +133,9 @@ abstract public class Image extends CompoundTerm {
         }
         return (relationIndex == 0) ? term[1] : term[0];
     }
-}
 
+    @Override
+    protected boolean validForm() {
+        return true;
+    }
+}
@@ -150,5 +150,24 @@ public class Implication extends Statement {
     public boolean isConcurrent() {
         return getTemporalOrder()==TemporalRules.ORDER_CONCURRENT;
     }
-    
+
+    @Override
+    protected boolean validForm() {
+        if (term.length != 2) {
+            return false;
+        }
+        final Term subject = term[0];
+        final Term predicate = term[1];
+        if (invalidStatement(subject, predicate, temporalOrder != TemporalRules.ORDER_FORWARD && temporalOrder != TemporalRules.ORDER_CONCURRENT)) {
+            return false;
+        }
+        if ((subject instanceof Implication) || (subject instanceof Equivalence) || (predicate instanceof Equivalence) ||
+                (subject instanceof Interval) || (predicate instanceof Interval)) {
+            return false;
+        }
+        if (predicate instanceof Implication) {
+            return super.validForm(); //make() merges the conditions
+        }
+        return true;
+    }
 }
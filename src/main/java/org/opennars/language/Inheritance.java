@@ -101,5 +101,8 @@ public class Inheritance extends Statement {
         return NativeOperator.INHERITANCE;
     }
 
+    @Override
+    protected boolean validForm() {
+        return term.length == 2 && !invalidStatement(term[0], term[1]);
+    }
 }
-
@@ -134,4 +134,9 @@ public class IntersectionExt extends CompoundTerm {
     public boolean isCommutative() {
         return true;
     }
+
+    @Override
+    protected boolean validForm() {
+        return term.length > 0;
+    }
 }
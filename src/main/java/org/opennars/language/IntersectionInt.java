@@ -132,4 +132,9 @@ public class IntersectionInt extends CompoundTerm {
     public boolean isCommutative() {
         return true;
     }
+
+    @Override
+    protected boolean validForm() {
+        return term.length > 0;
+    }
 }
@@ -98,4 +98,8 @@ public class Negation extends CompoundTerm {
         return (ptc.equals(Negation.make(tc)) /* || tc.equals(Negation.make(ptc))*/ );        
     }
 
+    @Override
+    protected boolean validForm() {
+        return term.length == 1;
+    }
 }
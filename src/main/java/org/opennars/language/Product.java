@@ -80,7 +80,8 @@ public class Product extends CompoundTerm {
         return NativeOperator.PRODUCT;
     }
 
-
-
-    
+    @Override
+    protected boolean validForm() {
+        return true;
+    }
 }
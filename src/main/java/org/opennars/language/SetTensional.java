@@ -75,5 +75,10 @@ abstract public class SetTensional extends CompoundTerm {
     @Override
     public boolean isCommutative() {
         return true;
-    }    
+    }
+
+    @Override
+    protected boolean validForm() {
+        return term.length > 0;
+    }
 }
@@ -94,4 +94,9 @@ public class Similarity extends Statement {
     public boolean isCommutative() {
         return true;
     }
+
+    @Override
+    protected boolean validForm() {
+        return term.length == 2 && !invalidStatement(term[0], term[1]);
+    }
 }
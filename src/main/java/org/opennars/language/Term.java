@@ -14,7 +14,6 @@
  */
 package org.opennars.language;
 
-import org.apache.commons.lang3.StringUtils;
 import org.opennars.inference.TemporalRules;
 import org.opennars.io.Symbols;
 import org.opennars.io.Symbols.NativeOperator;
@@ -27,6 +26,7 @@ import org.opennars.storage.Memory;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 //import org.opennars.util.sort.SortedList;
 
 /**
@@ -38,7 +38,9 @@ import java.util.*;
  */
 public class Term implements AbstractTerm, Serializable {
     public ImaginationSpace imagination;
-    private static final Map<CharSequence,Term> atoms = new HashMap();
+    private static final Map<CharSequence,Term> atoms = new ConcurrentHashMap<>();
+    /** interned names p[i,j,k,l] of index terms, by their prefix p */
+    private static final Map<String,String> indexedNames = new ConcurrentHashMap<>();
 
     final public static Term SELF = SetExt.make(Term.get("SELF"));
     final public static Term SEQ_SPATIAL = Term.get("#");
@@ -94,47 +96,77 @@ public class Term implements AbstractTerm, Serializable {
         setName(name);
     }
     
-    /** gets the atomic term given a name */
+    /** gets the atomic term given a name, may be called from concurrent parsers */
     public final static Term get(final CharSequence name) {
-        Term x = atoms.get(name); //only
-        if (x != null && !x.toString().endsWith("]")) { //return only if it isn't an index term
+        final Term x = atoms.get(name);
+        if (x != null) {
             return x;
         }
+        final int len = name.length();
+        if (len > 0 && name.charAt(len - 1) == ']') {
+            //never cached, every index term carries its own indices
+            return getIndexed(name.toString());
+        }
+        return atoms.computeIfAbsent(name, Term::new);
+    }
 
-        final String namestr = name.toString();
-        //p[s,i,j]
-        int[] term_indices = null;
-        String before_indices_str = null;
-        if(namestr.endsWith("]") && namestr.contains("[")) { //simple check, failing for most terms
-            String indices_str = namestr.split("\\[")[1].split("\\]")[0];
-            before_indices_str = namestr.split("\\[")[0];
-            String[] inds = indices_str.split(",");
-            if(inds.length == 2) { //only position info given
-                indices_str="1,1,"+indices_str;
-                inds = indices_str.split(",");
-            }
-            term_indices = new int[inds.length];
-            for(int i=0;i<inds.length;i++) {
-                if(StringUtils.isNumeric(inds[i]))
-                    term_indices[i] = Integer.valueOf(inds[i]);
-                else {
-                    term_indices = null;
-                    break;
-                }
-            }
+    /** p[i,j] or p[s1,s2,i,j] with numeric indices becomes p[i,j,k,l] carrying the indices */
+    private static Term getIndexed(final String namestr) {
+        final int open = namestr.indexOf('[');
+        if (open < 0) {
+            final Term x = new Term(namestr);
+            x.index_variable = null;
+            return x;
         }
-        
-        CharSequence name2 = name;
-        if(term_indices != null) { //only on conceptual level not
-            name2 = before_indices_str + "[i,j,k,l]";
+        final String before_indices_str = namestr.substring(0, open);
+        final int close = namestr.indexOf(']', open);
+        final int[] term_indices = parseIndices(namestr, open + 1, close);
+
+        final Term x;
+        if (term_indices != null) { //only on conceptual level not
+            x = new Term(indexedNames.computeIfAbsent(before_indices_str, p -> p + "[i,j,k,l]"));
+        } else {
+            x = new Term(namestr);
         }
-        x = new Term(name2);
         x.term_indices = term_indices;
         x.index_variable = before_indices_str;
-        atoms.put(name2, x);
-        
         return x;
     }
+
+    /** parses the comma separated numbers in [from,to), two of them are prefixed by the sizes 1,1 */
+    private static int[] parseIndices(final String s, final int from, final int to) {
+        int count = 1;
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == ',') {
+                count++;
+            }
+        }
+        final int offset = count == 2 ? 2 : 0;
+        final int[] term_indices = new int[count + offset];
+        if (offset == 2) {
+            term_indices[0] = term_indices[1] = 1;
+        }
+        int k = offset;
+        int value = 0;
+        boolean digits = false;
+        for (int i = from; i <= to; i++) {
+            final char c = i < to ? s.charAt(i) : ',';
+            if (c == ',') {
+                if (!digits) {
+                    return null;
+                }
+                term_indices[k++] = value;
+                value = 0;
+                digits = false;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits = true;
+            } else {
+                return null;
+            }
+        }
+        return term_indices;
+    }
     
     /** gets the atomic term of an integer */
     public final static Term get(final int i) {
@@ -299,6 +331,26 @@ public class Term implements AbstractTerm, Serializable {
         return 0;
     }
     
+    /** signature bits of the three variable types */
+    public static final long VARIABLE_SIGNATURE = signatureBit(Symbols.VAR_INDEPENDENT)
+            | signatureBit(Symbols.VAR_DEPENDENT) | signatureBit(Symbols.VAR_QUERY);
+
+    /** maps a hash to one of 64 bits */
+    static long signatureBit(final int h) {
+        return 1L << (((h ^ (h >>> 16)) * 0x9E3779B1) >>> 26);
+    }
+
+    /**
+     * Bloom signature of the term: one bit per contained atom, variable type
+     * and compound operator. A term with a bit this signature lacks can't be
+     * a subterm of this term.
+     *
+     * @return The signature
+     */
+    public long signature() {
+        return signatureBit(hashCode());
+    }
+
     /**
      * Recursively check if a compound contains a term
      *
@@ -411,10 +463,42 @@ public class Term implements AbstractTerm, Serializable {
         return s.toArray(new Term[0]);
     }
 
-    /** performs a thorough check of the validity of a term (by cloneDeep it) to see if it's valid */
+    /** performs a thorough check of the validity of a term, equivalent to cloneDeep() != null but without building a copy */
     public static boolean valid(final Term content) {
-        final Term cloned = content.cloneDeep();
-        return cloned != null;
+        if (!hasCanonicalForm(content)) {
+            //make() would reorder or merge components, the in-place check doesn't apply
+            return content.cloneDeep() != null;
+        }
+        return hasValidForm(content);
+    }
+
+    private static boolean hasCanonicalForm(final Term t) {
+        if (!(t instanceof CompoundTerm)) {
+            return true;
+        }
+        final CompoundTerm c = (CompoundTerm) t;
+        for (final Term component : c.term) {
+            if (component == null || !hasCanonicalForm(component)) {
+                return false;
+            }
+        }
+        return c.hasCanonicalComponents();
+    }
+
+    private static boolean hasValidForm(final Term t) {
+        if (t == null) {
+            return false;
+        }
+        if (!(t instanceof CompoundTerm)) {
+            return true;
+        }
+        final CompoundTerm c = (CompoundTerm) t;
+        for (final Term component : c.term) {
+            if (!hasValidForm(component)) {
+                return false;
+            }
+        }
+        return c.validForm();
     }
 
     public boolean subjectOrPredicateIsIndependentVar() {
@@ -156,6 +156,8 @@ public class Terms {
                 return DifferenceInt.make(componentList);
             case INHERITANCE:
                 return Inheritance.make(componentList[0], componentList[1]);
+            case SIMILARITY:
+                return Similarity.make(componentList[0], componentList[1]);
             case PRODUCT:
                 return new Product(componentList);
             case IMAGE_EXT:
@@ -72,6 +72,12 @@ public class Variable extends Term {
         return v;
     }
 
+    /** variables are renamed in place, so only their type goes into the signature */
+    @Override
+    public long signature() {
+        return signatureBit(type);
+    }
+
     /**
      * Get the type of the variable
      *
@@ -64,6 +64,13 @@ public class Variables {
     }
     public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term>[] map, final boolean allowPartial) {
 
+        //without variables, a side has to contain every constant atom and operator of the other,
+        //except that a partial match only needs the shorter sequence term1 to be found in term2
+        if ((!term2.hasVar() && (term1.signature() & ~Term.VARIABLE_SIGNATURE & ~term2.signature()) != 0) ||
+            (!allowPartial && !term1.hasVar() && (term2.signature() & ~Term.VARIABLE_SIGNATURE & ~term1.signature()) != 0)) {
+            return false;
+        }
+
         boolean term1HasVar = term1.hasVar(type);
         if(type == Symbols.VAR_INDEPENDENT) {
             term1HasVar |= term1.hasVarDep();
@@ -228,7 +235,7 @@ public class Variables {
             }
             final Term[] list = cTerm1.cloneTerms();
             if (cTerm1.isCommutative()) {
-                CompoundTerm.shuffle(list, Memory.randomNumber);
+                CompoundTerm.shuffle(list, Memory.random());
                 final Set<Integer> alreadyMatched = new HashSet<>();
                 //ok attempt unification
                 if(cTerm2 == null || list == null || cTerm2.term == null || list.length != cTerm2.term.length) {
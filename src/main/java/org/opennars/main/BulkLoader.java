@@ -0,0 +1,189 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.main;
+
+import org.apache.commons.lang3.StringUtils;
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese.InvalidInputException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads large Narsese files: lines are parsed in parallel by worker threads
+ * and the resulting tasks enter memory in batches, in the order of the file.
+ * <p>
+ * Commands in the file (like cycle counts) are executed in order, after the tasks before them.
+ * With deferred cycling the cycle counts are summed up and run after loading finished instead.
+ */
+public class BulkLoader {
+
+    private final Nar nar;
+    private final int threads;
+    private final int batchSize;
+    private final boolean deferCycles;
+
+    /** cycles requested by the input while cycling is deferred */
+    private long deferredCycles = 0;
+    private long loaded = 0;
+
+    public BulkLoader(final Nar nar, final boolean deferCycles) {
+        this(nar, Runtime.getRuntime().availableProcessors(), 1024, deferCycles);
+    }
+
+    /**
+     * @param threads amount of parser threads
+     * @param batchSize amount of lines parsed and input together
+     * @param deferCycles whether cycles requested by the input are run only after loading finished
+     */
+    public BulkLoader(final Nar nar, final int threads, final int batchSize, final boolean deferCycles) {
+        this.nar = nar;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.deferCycles = deferCycles;
+    }
+
+    /**
+     * @return the amount of tasks loaded
+     */
+    public long load(final String path) throws IOException {
+        try (final BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * @return the amount of tasks loaded
+     */
+    public long load(final Reader input) throws IOException {
+        final BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        final ExecutorService parsers = Executors.newFixedThreadPool(threads, r -> {
+            final Thread t = new Thread(r, "Narsese parser");
+            t.setDaemon(true);
+            return t;
+        });
+        final Deque<Future<List<Object>>> parsing = new ArrayDeque<>();
+        loaded = 0;
+        deferredCycles = 0;
+        try {
+            List<String> lines = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == batchSize) {
+                    parsing.add(parse(parsers, lines));
+                    lines = new ArrayList<>(batchSize);
+                    if (parsing.size() > 2 * threads) { //bounded amount of parsed but not yet input batches
+                        input(parsing.poll());
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                parsing.add(parse(parsers, lines));
+            }
+            while (!parsing.isEmpty()) {
+                input(parsing.poll());
+            }
+        } finally {
+            parsers.shutdownNow();
+        }
+        if (deferCycles && !nar.isRunning()) {
+            nar.cycles((int) deferredCycles);
+        }
+        return loaded;
+    }
+
+    /**
+     * parses lines in a worker thread
+     *
+     * @return future of the parsed batch, each element is either a Task or a command line
+     */
+    private Future<List<Object>> parse(final ExecutorService parsers, final List<String> lines) {
+        return parsers.submit(() -> {
+            final List<Object> parsed = new ArrayList<>(lines.size());
+            for (String text : lines) {
+                text = text.trim();
+                //Ignore any input that is just a comment
+                if (text.isEmpty() || text.startsWith("'") || text.startsWith("//")) {
+                    continue;
+                }
+                if (text.startsWith("*") || StringUtils.isNumeric(text)) {
+                    parsed.add(text);
+                    continue;
+                }
+                try {
+                    parsed.add(nar.narsese().parseTask(text));
+                } catch (final InvalidInputException e) {
+                    throw new IllegalStateException("Invalid input: " + text, e);
+                }
+            }
+            return parsed;
+        });
+    }
+
+    private void input(final Future<List<Object>> batch) throws IOException {
+        final List<Object> parsed;
+        try {
+            parsed = batch.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", ex);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+        final List<Task> tasks = new ArrayList<>(parsed.size());
+        for (final Object o : parsed) {
+            if (o instanceof Task) {
+                final Task task = (Task) o;
+                if (!nar.addToSensoryChannel(task)) {
+                    tasks.add(task);
+                }
+                continue;
+            }
+            //commands see the tasks before them
+            flush(tasks);
+            final String command = (String) o;
+            if (deferCycles && StringUtils.isNumeric(command)) {
+                deferredCycles += Long.parseLong(command);
+            } else {
+                nar.addInput(command);
+            }
+        }
+        flush(tasks);
+    }
+
+    private void flush(final List<Task> tasks) {
+        if (!tasks.isEmpty()) {
+            nar.memory.inputTasks(nar, tasks, true);
+            loaded += tasks.size();
+            tasks.clear();
+        }
+    }
+}
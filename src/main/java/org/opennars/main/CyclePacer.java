@@ -0,0 +1,214 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.main;
+
+import org.opennars.io.events.Events.CyclesEnd;
+import org.opennars.io.events.Events.CyclesStart;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the cycles of a reasoner on a fixed wall-clock tick
+ * <p>
+ * Ticks are scheduled against deadlines rather than by sleeping after each cycle,
+ * so the cadence does not drift with the cost of the cycles. Each tick runs a fixed
+ * number of cycles, or, with a budget, as many cycles as fit into the budget, so
+ * the cycles per tick adapt to the load. When ticks are missed the policy decides
+ * whether they are run late or skipped; lateness and skipped ticks are reported.
+ * <p>
+ * Use it instead of {@link Nar#start(long)}, not together with it.
+ */
+public class CyclePacer implements Runnable {
+
+    /** what to do with ticks whose deadline passed */
+    public enum Policy {
+        /** run missed ticks back to back, at most maxCatchUpTicks of them, skip the rest */
+        CATCH_UP,
+        /** skip missed ticks and continue with the next deadline */
+        SKIP
+    }
+
+    private final Nar nar;
+    private final long tickNanos;
+    private final Policy policy;
+    private volatile int cyclesPerTick = 1;
+    private volatile long budgetNanos = 0;
+    private volatile int maxCatchUpTicks = 10;
+
+    private volatile Thread thread = null;
+    private volatile boolean stopped = false;
+    private volatile RuntimeException error = null;
+    private volatile long ticks = 0, skippedTicks = 0, cycles = 0;
+    private volatile long lastLatenessNanos = 0, maxLatenessNanos = 0;
+    private volatile int lastCyclesPerTick = 0;
+
+    /**
+     * @param tickNanos period of the ticks
+     * @param policy handling of missed ticks
+     */
+    public CyclePacer(final Nar nar, final long tickNanos, final Policy policy) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tick period must be positive");
+        }
+        this.nar = nar;
+        this.tickNanos = tickNanos;
+        this.policy = policy;
+    }
+
+    /** a pacer running one cycle per tick at the given rate */
+    public static CyclePacer atRate(final Nar nar, final double cyclesPerSecond, final Policy policy) {
+        return new CyclePacer(nar, (long) (TimeUnit.SECONDS.toNanos(1) / cyclesPerSecond), policy);
+    }
+
+    /** cycles run each tick when there is no budget */
+    public void setCyclesPerTick(final int cyclesPerTick) {
+        if (cyclesPerTick < 1) {
+            throw new IllegalArgumentException("at least one cycle per tick");
+        }
+        this.cyclesPerTick = cyclesPerTick;
+    }
+
+    /** time the cycles of one tick may take, 0 to run cyclesPerTick instead; at least one cycle runs each tick */
+    public void setBudgetNanos(final long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    public void setMaxCatchUpTicks(final int maxCatchUpTicks) {
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            stopped = false;
+            error = null;
+            thread = new Thread(this, "CyclePacer");
+            thread.start();
+        }
+    }
+
+    /** stops after the current cycle and waits for the pacing thread to exit */
+    public void stop() throws InterruptedException {
+        final Thread running;
+        synchronized (this) {
+            stopped = true;
+            running = thread;
+            thread = null;
+        }
+        if (running != null && running != Thread.currentThread()) {
+            running.interrupt();
+            running.join();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            pace();
+        } catch (final RuntimeException ex) {
+            error = ex;
+        } finally {
+            synchronized (this) {
+                if (thread == Thread.currentThread()) {
+                    thread = null;
+                }
+            }
+        }
+    }
+
+    /** whether this is still the pacing thread, a stopped one may outlive a restart until it is joined */
+    private boolean pacing() {
+        return !stopped && thread == Thread.currentThread();
+    }
+
+    private void pace() {
+        long deadline = System.nanoTime();
+        while (pacing()) {
+            long now = System.nanoTime();
+            while (now < deadline && pacing()) {
+                LockSupport.parkNanos(deadline - now);
+                now = System.nanoTime();
+            }
+            if (!pacing()) {
+                return;
+            }
+            final long lateness = now - deadline;
+            lastLatenessNanos = lateness;
+            if (lateness > maxLatenessNanos) {
+                maxLatenessNanos = lateness;
+            }
+            final long missed = lateness / tickNanos;
+            final long skip = policy == Policy.SKIP ? missed : Math.max(0, missed - maxCatchUpTicks);
+            if (skip > 0) {
+                skippedTicks += skip;
+                deadline += skip * tickNanos;
+            }
+            tick(now);
+            deadline += tickNanos;
+        }
+    }
+
+    private void tick(final long start) {
+        final long budget = budgetNanos;
+        final int fixed = cyclesPerTick;
+        int ran = 0;
+        do {
+            nar.emit(CyclesStart.class);
+            nar.cycle();
+            nar.emit(CyclesEnd.class);
+            ran++;
+        } while (pacing() && (budget > 0 ? System.nanoTime() - start < budget : ran < fixed));
+        lastCyclesPerTick = ran;
+        cycles += ran;
+        ticks++;
+    }
+
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /** the exception which ended the pacing thread, null if none */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /** ticks run so far */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /** ticks skipped because their deadline had passed */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    public long getCycles() {
+        return cycles;
+    }
+
+    /** cycles the last tick ran, which varies with the load when there is a budget */
+    public int getLastCyclesPerTick() {
+        return lastCyclesPerTick;
+    }
+
+    /** how late the last tick started, in nanoseconds */
+    public long getLastLatenessNanos() {
+        return lastLatenessNanos;
+    }
+
+    public long getMaxLatenessNanos() {
+        return maxLatenessNanos;
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.main;
+
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese.InvalidInputException;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events.CycleStart;
+import org.opennars.language.CompoundTerm;
+import org.opennars.language.Term;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Partitions the concept space over several reasoners by the hash of the concept term
+ * <p>
+ * Input goes to the shard owning its term. A task a shard derives for a term another
+ * shard owns does not enter its own memory but is passed to the owner, through the
+ * derivation filter of the memory; the tasks are collected and input as one batch at
+ * the start of the owner's next cycle, on its own thread. So the tables of a concept
+ * are only filled in its shard, while the components of its term get concepts in the
+ * same shard to link them. Evidence stays apart because every shard has its own narId.
+ * Output observers registered here get the events of all shards.
+ * <p>
+ * The shards can be stepped together by {@link #cycles(int)} or run on a {@link NarHost};
+ * occurrence times of routed tasks are moved to the clock of the receiving shard.
+ */
+public class Federation {
+
+    /** routed tasks kept for a shard which did not cycle yet; further ones are dropped */
+    public static final int MAX_PENDING_ROUTED = 10000;
+
+    private static final class Routed {
+        final Task task;
+        final long sourceTime;
+
+        Routed(final Task task, final long sourceTime) {
+            this.task = task;
+            this.sourceTime = sourceTime;
+        }
+    }
+
+    private final class Shard implements EventObserver {
+        final Nar nar;
+        final Queue<Routed> inbox = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicLong sent = new AtomicLong(), received = new AtomicLong(), dropped = new AtomicLong();
+
+        Shard(final Nar nar) {
+            this.nar = nar;
+        }
+
+        /** derivation filter of the shard, passes tasks of foreign terms to their owner */
+        boolean keep(final Task task) {
+            final Shard owner = shards[shardOf(task.getTerm())];
+            if (owner == this) {
+                return true;
+            }
+            owner.offer(task, nar.time());
+            sent.incrementAndGet();
+            return false;
+        }
+
+        @Override
+        public void event(final Class event, final Object[] args) {
+            if (event == CycleStart.class) {
+                deliver();
+            }
+        }
+
+        void offer(final Task task, final long sourceTime) {
+            if (pending.incrementAndGet() > MAX_PENDING_ROUTED) {
+                pending.decrementAndGet();
+                dropped.incrementAndGet();
+                return;
+            }
+            final Sentence sentence = task.sentence.clone();
+            inbox.add(new Routed(new Task(sentence, task.budget.clone(), Task.EnumType.DERIVED), sourceTime));
+        }
+
+        void deliver() {
+            if (inbox.isEmpty()) {
+                return;
+            }
+            final long now = nar.time();
+            final List<Task> batch = new ArrayList<>();
+            Routed r;
+            while ((r = inbox.poll()) != null) {
+                pending.decrementAndGet();
+                final Stamp stamp = r.task.sentence.stamp;
+                if (!r.task.sentence.isEternal()) {
+                    stamp.setOccurrenceTime(stamp.getOccurrenceTime() - r.sourceTime + now);
+                }
+                batch.add(r.task);
+            }
+            received.addAndGet(batch.size());
+            nar.memory.inputTasks(nar, batch, false);
+        }
+    }
+
+    private final Shard[] shards;
+
+    /** @param nars the shards, each with its own narId */
+    public Federation(final List<Nar> nars) {
+        if (nars.isEmpty()) {
+            throw new IllegalArgumentException("a federation needs at least one shard");
+        }
+        final Set<Long> ids = new HashSet<>();
+        shards = new Shard[nars.size()];
+        for (int i = 0; i < shards.length; i++) {
+            final Nar nar = nars.get(i);
+            if (!ids.add(nar.memory.narId)) {
+                throw new IllegalArgumentException("shards need distinct narIds, " + nar.memory.narId + " is used twice");
+            }
+            shards[i] = new Shard(nar);
+            nar.memory.derivationFilter = shards[i]::keep;
+            nar.on(CycleStart.class, shards[i]);
+        }
+    }
+
+    /** index of the shard owning the concept of a term */
+    public int shardOf(Term term) {
+        if (term.hasInterval()) {
+            final Term conceptTerm = CompoundTerm.replaceIntervals(term);
+            if (conceptTerm != null) {
+                term = conceptTerm;
+            }
+        }
+        return Math.floorMod(term.hashCode(), shards.length);
+    }
+
+    public int size() {
+        return shards.length;
+    }
+
+    public Nar getShard(final int index) {
+        return shards[index].nar;
+    }
+
+    public Nar getShard(final Term term) {
+        return shards[shardOf(term)].nar;
+    }
+
+    /** inputs a Narsese task into the shard owning its term */
+    public void addInput(final String text) throws InvalidInputException {
+        final String line = text.trim();
+        if (line.isEmpty() || line.startsWith("'") || line.startsWith("//")) {
+            return;
+        }
+        final Task task = shards[0].nar.narsese().parseTask(line);
+        getShard(task.getTerm()).addInput(line);
+    }
+
+    /** steps all shards together */
+    public void cycles(final int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            for (final Shard shard : shards) {
+                shard.nar.cycles(1);
+            }
+        }
+    }
+
+    /** runs all shards on the host */
+    public List<NarHost.Tenant> host(final NarHost host) {
+        final List<NarHost.Tenant> tenants = new ArrayList<>(shards.length);
+        for (final Shard shard : shards) {
+            tenants.add(host.add(shard.nar));
+        }
+        return tenants;
+    }
+
+    /** registers an output observer on all shards */
+    public void on(final Class channel, final EventObserver o) {
+        for (final Shard shard : shards) {
+            shard.nar.on(channel, o);
+        }
+    }
+
+    public void off(final Class channel, final EventObserver o) {
+        for (final Shard shard : shards) {
+            shard.nar.off(channel, o);
+        }
+    }
+
+    /** stops routing, the shards keep running on their own */
+    public void close() {
+        for (final Shard shard : shards) {
+            shard.nar.memory.derivationFilter = null;
+            shard.nar.off(CycleStart.class, shard);
+        }
+    }
+
+    /** tasks the shard routed to other shards */
+    public long getSent(final int index) {
+        return shards[index].sent.get();
+    }
+
+    /** routed tasks the shard received */
+    public long getReceived(final int index) {
+        return shards[index].received.get();
+    }
+
+    /** routed tasks dropped because the shard had too many pending */
+    public long getDropped(final int index) {
+        return shards[index].dropped.get();
+    }
+}
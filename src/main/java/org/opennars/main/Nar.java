@@ -18,6 +18,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.opennars.entity.*;
 import org.opennars.interfaces.Timable;
 import org.opennars.interfaces.pub.Reasoner;
+import org.opennars.io.ChannelReader;
+import org.opennars.io.ChannelWriter;
 import org.opennars.io.ConfigReader;
 import org.opennars.io.Narsese;
 import org.opennars.io.Narsese.InvalidInputException;
@@ -37,13 +39,22 @@ import org.opennars.language.Term;
 import org.opennars.operator.Operator;
 import org.opennars.plugin.Plugin;
 import org.opennars.plugin.perception.SensoryChannel;
+import org.opennars.storage.ConceptArchive;
+import org.opennars.storage.ConceptBag;
 import org.opennars.storage.LevelBag;
 import org.opennars.storage.Memory;
+import org.opennars.storage.MemorySnapshot;
+import org.opennars.storage.TaskJournal;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.util.*;
 import java.util.logging.Level;
@@ -63,8 +74,10 @@ import java.util.logging.Logger;
 public class Nar extends SensoryChannel implements Reasoner, Serializable, Runnable {
     public Parameters narParameters = new Parameters();
 
-    /* System clock, relatively defined to guarantee the repeatability of behaviors */
-    private Long cycle = new Long(0);
+    /* System clock, relatively defined to guarantee the repeatability of behaviors;
+       read without locking, incremented by the cycling threads under cycleLock */
+    private volatile long cycle = 0;
+    private final Lock cycleLock = new Lock();
 
     /**
      * The information about the version and date of the project.
@@ -84,36 +97,115 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
     protected transient Map<Term,SensoryChannel> sensoryChannels = new HashMap<>();
     public void addSensoryChannel(final String term, final SensoryChannel channel) {
         try {
-            sensoryChannels.put(new Narsese(this).parseTerm(term), channel);
+            sensoryChannels.put(narsese().parseTerm(term), channel);
         } catch (final InvalidInputException ex) {
             Logger.getLogger(Nar.class.getName()).log(Level.SEVERE, null, ex);
             throw new IllegalStateException("Could not add sensory channel.", ex);
         }
     }
     
+    /**
+     * Writes a binary snapshot of the memory, see {@link MemorySnapshot}
+     */
     public void SaveToFile(final String name) throws IOException {
-        final FileOutputStream outStream = new FileOutputStream(name);
-        final ObjectOutputStream stream = new ObjectOutputStream(outStream);
-        stream.writeObject(this);
-        outStream.close();
+        try (ChannelWriter out = new ChannelWriter(FileChannel.open(Paths.get(name),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            MemorySnapshot.write(out, memory, time(), usedConfigFilePath);
+        }
     }
     
+    /**
+     * Constructs a reasoner from a binary snapshot, using the config file the snapshot was taken with
+     */
     public static Nar LoadFromFile(final String name) throws IOException, ClassNotFoundException, 
             IllegalAccessException, ParseException, ParserConfigurationException, SAXException, 
             NoSuchMethodException, InstantiationException, InvocationTargetException {
-        final FileInputStream inStream = new FileInputStream(name);
-        final ObjectInputStream stream = new ObjectInputStream(inStream);
-        final Nar ret = (Nar) stream.readObject();
-        ret.memory.event = new EventEmitter();
-        ret.plugins = new ArrayList<>();
-        ret.sensoryChannels = new HashMap<>();
-        List<Plugin> pluginsToAdd = ConfigReader.loadParamsFromFileAndReturnPlugins(ret.usedConfigFilePath, ret, ret.narParameters);
-        for(Plugin p : pluginsToAdd) {
-            ret.addPlugin(p);
+        try (ChannelReader in = new ChannelReader(FileChannel.open(Paths.get(name), StandardOpenOption.READ))) {
+            final MemorySnapshot.Header header = MemorySnapshot.readHeader(in);
+            final Nar ret = new Nar(header.narId, header.configFilePath);
+            MemorySnapshot.read(in, ret.memory, header);
+            ret.cycle = header.time;
+            return ret;
+        }
+    }
+
+    /**
+     * Starts archiving forgotten concepts to the file, see {@link ConceptArchive}
+     */
+    public void startArchive(final String path) throws IOException {
+        stopArchive();
+        memory.archive = new ConceptArchive(path, memory);
+    }
+
+    /** stops archiving, the archived concepts are lost */
+    public void stopArchive() throws IOException {
+        if (memory.archive != null) {
+            memory.archive.close();
+            memory.archive = null;
+        }
+    }
+
+    /** snapshot file journaling checkpoints are written to, null if journaling is off */
+    private String journalSnapshotPath = null;
+
+    /**
+     * Starts journaling: writes a snapshot and logs all further input and operator feedback to the journal,
+     * a new snapshot is written and the journal truncated every JOURNAL_SNAPSHOT_CYCLES cycles
+     */
+    public void startJournal(final String snapshotPath, final String journalPath) throws IOException {
+        stopJournal();
+        SaveToFile(snapshotPath);
+        journalSnapshotPath = snapshotPath;
+        memory.journal = new TaskJournal(journalPath, memory, time());
+    }
+
+    public void stopJournal() throws IOException {
+        if (memory.journal != null) {
+            memory.journal.close();
+            memory.journal = null;
+        }
+        journalSnapshotPath = null;
+    }
+
+    /**
+     * Writes a snapshot next to the current one, replaces it and truncates the journal
+     * <p>
+     * No task enters memory from outside meanwhile, so none is dropped from both.
+     */
+    public void checkpoint() throws IOException {
+        if (memory.journal == null) {
+            throw new IllegalStateException("Journaling is not active");
+        }
+        final String tmp = journalSnapshotPath + ".tmp";
+        synchronized (memory.tasksMutex) {
+            SaveToFile(tmp);
+            Files.move(Paths.get(tmp), Paths.get(journalSnapshotPath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            memory.journal.truncate(time());
         }
+    }
+
+    /**
+     * Constructs a reasoner from a snapshot and replays the journal written after it,
+     * journaling has to be started again on the returned reasoner
+     */
+    public static Nar recover(final String snapshotPath, final String journalPath) throws IOException, ClassNotFoundException, 
+            IllegalAccessException, ParseException, ParserConfigurationException, SAXException, 
+            NoSuchMethodException, InstantiationException, InvocationTargetException {
+        final Nar ret = LoadFromFile(snapshotPath);
+        ret.cycle = TaskJournal.replay(journalPath, ret.memory, ret.time());
         return ret;
     }
 
+    /** Narsese parsers keep their parse state, so each thread reuses its own */
+    private final transient ThreadLocal<Narsese> parsers = ThreadLocal.withInitial(() -> new Narsese(this));
+
+    /**
+     * @return the Narsese parser of the calling thread
+     */
+    public Narsese narsese() {
+        return parsers.get();
+    }
+
     long minCyclePeriodMS;
 
     /**
@@ -126,13 +218,13 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
     public final Memory memory;
     
     public static class Lock extends Object implements Serializable { }
-    //Because AtomicInteger/Double ot supported by teavm
+    //Because AtomicInteger/Double ot supported by teavm: volatile values, the lock only for incrementAndGet
     public static class PortableInteger implements Serializable {
         public PortableInteger(){}
         final Lock lock = new Lock();
-        int VAL = 0;
-        public PortableInteger(final int VAL){synchronized(lock){this.VAL = VAL;}}
-        public void set(final int VAL){synchronized(lock){this.VAL = VAL;}}
+        volatile int VAL = 0;
+        public PortableInteger(final int VAL){this.VAL = VAL;}
+        public void set(final int VAL){this.VAL = VAL;}
         public int get() {return this.VAL;}
         public float floatValue() {return (float)this.VAL;}
         public float doubleValue() {return (float)this.VAL;}
@@ -140,11 +232,10 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         public int incrementAndGet(){int ret = 0; synchronized(lock){this.VAL++; ret=this.VAL;} return ret;}
     }
     public static class PortableDouble implements Serializable {
-        final Lock lock = new Lock();
         public PortableDouble(){}
-        double VAL = 0;
-        public PortableDouble(final double VAL){synchronized(lock){this.VAL = VAL;}}
-        public void set(final double VAL){synchronized(lock){this.VAL = VAL;}}
+        volatile double VAL = 0;
+        public PortableDouble(final double VAL){this.VAL = VAL;}
+        public void set(final double VAL){this.VAL = VAL;}
         public double get() {return this.VAL;}
         public float floatValue() {return (float)this.VAL;}
         public float doubleValue() {return (float)this.VAL;}
@@ -210,7 +301,9 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
             NoSuchMethodException, ParserConfigurationException, SAXException, IllegalAccessException, ParseException, ClassNotFoundException {
         List<Plugin> pluginsToAdd = ConfigReader.loadParamsFromFileAndReturnPlugins(configFilePath, this, this.narParameters);
         final Memory m = new Memory(this.narParameters, new RuntimeParameters(),
-                new LevelBag(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, this.narParameters),
+                narParameters.CONCEPT_BAG_MEGABYTES > 0
+                    ? new ConceptBag(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, narParameters.CONCEPT_BAG_MEGABYTES * 1024L * 1024L, this.narParameters)
+                    : new LevelBag(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, this.narParameters),
                 new LevelBag<>(narParameters.NOVEL_TASK_BAG_LEVELS, narParameters.NOVEL_TASK_BAG_SIZE, this.narParameters),
                 new LevelBag<>(narParameters.SEQUENCE_BAG_LEVELS, narParameters.SEQUENCE_BAG_SIZE, this.narParameters),
                 new LevelBag<>(narParameters.OPERATION_BAG_LEVELS, narParameters.OPERATION_BAG_SIZE, this.narParameters));
@@ -286,7 +379,6 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
     
     public void addInput(String text) {
         text = text.trim();
-        final Narsese narsese = new Narsese(this);
         if(addMultiLineInput(text)) {
             return;
         }
@@ -298,10 +390,23 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         }
         final Task task;
         try {
-            task = narsese.parseTask(text);
+            task = narsese().parseTask(text);
         } catch (final InvalidInputException e) {
             throw new IllegalStateException("Invalid input: " + text, e);
         }
+        if (addToSensoryChannel(task)) {
+            return;
+        }
+        //else input into NARS directly:
+        this.memory.inputTask(this, task);
+    }
+
+    /**
+     * Passes the task to the sensory channel of its predicate, if there is one
+     *
+     * @return whether the task was taken by a sensory channel
+     */
+    boolean addToSensoryChannel(final Task task) {
         //check if it should go to a sensory channel instead:
         final Term t = task.getTerm();
         if(t != null && t instanceof Inheritance) {
@@ -311,27 +416,42 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
                 final SetExt subj = (SetExt) inh.getSubject();
                 //map to pei's -1 to 1 indexing schema
                 if(subj.term[0].term_indices == null) {
-                    final String variable = subj.toString().split("\\[")[0];
-                    final String[] vals = subj.toString().split("\\[")[1].split("\\]")[0].split(",");
+                    final String name = subj.term[0].name().toString();
+                    final int open = name.indexOf('[');
+                    final String[] vals = name.substring(open + 1, name.indexOf(']', open)).split(",");
                     final double height = Double.parseDouble(vals[0]);
                     final double width = Double.parseDouble(vals[1]);
                     final int wval = (int) Math.round((width+1.0f)/2.0f*(this.sensoryChannels.get(predicate).width-1));
                     final int hval = (int) Math.round(((height+1.0f)/2.0f*(this.sensoryChannels.get(predicate).height-1)));
-                    final String ev = task.sentence.isEternal() ? " " : " :|: ";
-                    final String newInput = "<"+variable+"["+hval+","+wval+"]} --> " + predicate + ">" +
-                                      task.sentence.punctuation + ev + task.sentence.truth.toString();
+                    final Term pixel = Term.get(name.substring(0, open) + "[" + hval + "," + wval + "]");
+                    final Sentence remapped = new Sentence(Inheritance.make(SetExt.make(pixel), predicate),
+                                      task.sentence.punctuation, task.sentence.truth, task.sentence.stamp);
                     this.emit(OutputHandler.IN.class, task);
-                    this.addInput(newInput);
-                    return;
+                    this.sensoryChannels.get(predicate).addInput(new Task(remapped, task.budget, Task.EnumType.INPUT), this);
+                    return true;
                 }
                 this.sensoryChannels.get(predicate).addInput(task, this);
-                return;
+                return true;
             }
         }
-        //else input into NARS directly:
-        this.memory.inputTask(this, task);
+        return false;
     }
     
+    /**
+     * Loads a Narsese file with parallel parsing and batched input, see {@link BulkLoader}
+     *
+     * @param deferCycles whether cycles requested in the file are only run after loading finished
+     * @return the amount of tasks loaded
+     */
+    public long addInputFile(final String s, final boolean deferCycles) {
+        try {
+            return new BulkLoader(this, deferCycles).load(s);
+        } catch (final IOException ex) {
+            Logger.getLogger(Nar.class.getName()).log(Level.SEVERE, null, ex);
+            throw new IllegalStateException("Could not open specified file", ex);
+        }
+    }
+
     public void addInputFile(final String s) {
         try (final BufferedReader br = new BufferedReader(new FileReader(s))) {
             String line;
@@ -349,12 +469,12 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
 
     /** gets a concept if it exists, or returns null if it does not */
     public Concept concept(final String concept) throws InvalidInputException {
-        return memory.concept(new Narsese(this).parseTerm(concept));
+        return memory.concept(narsese().parseTerm(concept));
     }
 
     public Nar ask(final String termString, final AnswerHandler answered) throws InvalidInputException {
         final Sentence sentenceForNewTask = new Sentence(
-            new Narsese(this).parseTerm(termString),
+            narsese().parseTerm(termString),
             Symbols.QUESTION_MARK,
             null,
             new Stamp(this, memory, Tense.Eternal));
@@ -375,7 +495,7 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
 
     public Nar askNow(final String termString, final AnswerHandler answered) throws InvalidInputException {
         final Sentence sentenceForNewTask = new Sentence(
-            new Narsese(this).parseTerm(termString),
+            narsese().parseTerm(termString),
             Symbols.QUESTION_MARK,
             null,
             new Stamp(this, memory, Tense.Present));
@@ -406,7 +526,7 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
 
     /** remove event handler */
     public void off(final Class c, final EventObserver o) {
-        memory.event.on(c, o);
+        memory.event.off(c, o);
     }
 
     /** set an event handler. useful for multiple events. */
@@ -518,9 +638,13 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         try {
             memory.cycle(this);
 
-            synchronized (cycle) {
+            synchronized (cycleLock) {
                 cycle++;
             }
+
+            if (memory.journal != null) {
+                journalCycleEnd();
+            }
         }
         catch (final Exception e) {
             if(MiscFlags.SHOW_REASONING_ERRORS) {
@@ -530,6 +654,18 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         }
     }
 
+    private void journalCycleEnd() {
+        try {
+            if (time() % narParameters.JOURNAL_SNAPSHOT_CYCLES == 0) {
+                checkpoint();
+            } else {
+                memory.journal.cycleEnd(time());
+            }
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Journaling failed", ex);
+        }
+    }
+
     @Override
     public String toString() {
         return memory.toString();
@@ -0,0 +1,236 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.main;
+
+import org.opennars.io.events.Events.CyclesEnd;
+import org.opennars.io.events.Events.CyclesStart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many reasoners on a fixed pool of carrier threads
+ * <p>
+ * A carrier takes the tenant which has waited longest, runs its cycles for one
+ * quantum and puts it back, so all tenants get a fair share of the carriers and
+ * no tenant needs its own thread. A tenant with a cycle rate is put back only
+ * when its next cycle is due; idle carriers block instead of spinning.
+ * <p>
+ * A hosted Nar must not also be started with {@link Nar#start(long)}.
+ */
+public class NarHost {
+
+    /** default time a carrier runs one tenant before switching, in nanoseconds */
+    public static final long DEFAULT_QUANTUM_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** A hosted reasoner with its cycle rate and metrics */
+    public static final class Tenant implements Delayed {
+        private final Nar nar;
+        private volatile long periodNanos;
+        private volatile boolean active = true;
+        private volatile Throwable error = null;
+        private volatile long cycles = 0, quanta = 0, busyNanos = 0;
+        /** when the next cycle is due */
+        private long next;
+
+        private Tenant(final Nar nar, final double cyclesPerSecond) {
+            this.nar = nar;
+            setCyclesPerSecond(cyclesPerSecond);
+            this.next = System.nanoTime();
+        }
+
+        public Nar getNar() {
+            return nar;
+        }
+
+        /** @param cyclesPerSecond maximum cycle rate, 0 for no limit */
+        public void setCyclesPerSecond(final double cyclesPerSecond) {
+            if (cyclesPerSecond < 0) {
+                throw new IllegalArgumentException("negative cycle rate");
+            }
+            this.periodNanos = cyclesPerSecond == 0 ? 0 : (long) (1e9 / cyclesPerSecond);
+        }
+
+        public double getCyclesPerSecond() {
+            final long p = periodNanos;
+            return p == 0 ? 0 : 1e9 / p;
+        }
+
+        /** cycles run by the host */
+        public long getCycles() {
+            return cycles;
+        }
+
+        /** quanta the tenant got */
+        public long getQuanta() {
+            return quanta;
+        }
+
+        /** time spent in the cycles of the tenant, in nanoseconds */
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        /** the exception or error which stopped the tenant, null if none */
+        public Throwable getError() {
+            return error;
+        }
+
+        /** whether the tenant is still scheduled */
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(next - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed o) {
+            return Long.compare(next, ((Tenant) o).next);
+        }
+    }
+
+    private final long quantumNanos;
+    private final DelayQueue<Tenant> ready = new DelayQueue<>();
+    private final List<Tenant> tenants = Collections.synchronizedList(new ArrayList<>());
+    private final Thread[] carriers;
+    private volatile boolean shutdown = false;
+
+    public NarHost(final int carrierThreads) {
+        this(carrierThreads, DEFAULT_QUANTUM_NANOS);
+    }
+
+    /**
+     * @param carrierThreads number of threads running the cycles of all tenants
+     * @param quantumNanos time a carrier runs one tenant before switching to the next
+     */
+    public NarHost(final int carrierThreads, final long quantumNanos) {
+        if (carrierThreads < 1 || quantumNanos < 1) {
+            throw new IllegalArgumentException("need at least one carrier and a positive quantum");
+        }
+        this.quantumNanos = quantumNanos;
+        this.carriers = new Thread[carrierThreads];
+        for (int i = 0; i < carrierThreads; i++) {
+            carriers[i] = new Thread(this::carry, "NarHost" + i);
+            carriers[i].setDaemon(true);
+            carriers[i].start();
+        }
+    }
+
+    /** hosts a Nar without a cycle rate limit */
+    public Tenant add(final Nar nar) {
+        return add(nar, 0);
+    }
+
+    /**
+     * @param cyclesPerSecond maximum cycle rate, 0 for no limit
+     * @return the tenant, for its metrics and for removing it
+     */
+    public Tenant add(final Nar nar, final double cyclesPerSecond) {
+        if (shutdown) {
+            throw new IllegalStateException("host is shut down");
+        }
+        final Tenant tenant = new Tenant(nar, cyclesPerSecond);
+        tenants.add(tenant);
+        ready.add(tenant);
+        return tenant;
+    }
+
+    /** stops scheduling the tenant, a quantum it is running finishes its current cycle first */
+    public void remove(final Tenant tenant) {
+        tenant.active = false;
+        ready.remove(tenant);
+        tenants.remove(tenant);
+    }
+
+    public List<Tenant> getTenants() {
+        synchronized (tenants) {
+            return new ArrayList<>(tenants);
+        }
+    }
+
+    /** stops the carriers and waits until they finished their quanta, the tenants keep their state */
+    public void shutdown() throws InterruptedException {
+        shutdown = true;
+        for (final Thread carrier : carriers) {
+            carrier.interrupt();
+        }
+        ready.clear();
+        for (final Thread carrier : carriers) {
+            if (carrier != Thread.currentThread()) {
+                carrier.join();
+            }
+        }
+    }
+
+    private void carry() {
+        while (!shutdown) {
+            final Tenant tenant;
+            try {
+                tenant = ready.take();
+            } catch (final InterruptedException e) {
+                return;
+            }
+            if (tenant.active) {
+                runQuantum(tenant);
+            }
+        }
+    }
+
+    private void runQuantum(final Tenant tenant) {
+        final Nar nar = tenant.nar;
+        final long start = System.nanoTime();
+        final long end = start + quantumNanos;
+        final long period = tenant.periodNanos;
+        long now = start;
+        long ran = 0;
+        try {
+            do {
+                nar.emit(CyclesStart.class);
+                nar.cycle();
+                nar.emit(CyclesEnd.class);
+                ran++;
+                now = System.nanoTime();
+                if (period > 0) {
+                    //a tenant which fell behind catches up by at most one period
+                    tenant.next = Math.max(tenant.next + period, now - period);
+                    if (tenant.next > now) {
+                        break;
+                    }
+                }
+            } while (tenant.active && !shutdown && now < end);
+        } catch (final Throwable e) {
+            //also errors like a StackOverflowError only stop the tenant, the carrier goes on
+            now = System.nanoTime();
+            tenant.error = e;
+            remove(tenant);
+        }
+        tenant.cycles += ran;
+        tenant.quanta++;
+        tenant.busyNanos += now - start;
+        if (tenant.active && !shutdown) {
+            if (period == 0) {
+                tenant.next = now;
+            }
+            ready.add(tenant);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.main;
+
+import org.opennars.interfaces.pub.Reasoner;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events.Answer;
+import org.opennars.io.events.OutputHandler;
+import org.opennars.io.events.OutputHandler.EXE;
+import org.opennars.io.events.OutputHandler.OUT;
+import org.opennars.io.events.TextOutputHandler;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Localhost TCP server which feeds Narsese lines of its clients to a reasoner
+ * and streams the output events of the reasoner back to them
+ * <p>
+ * One selector thread serves all clients and queues the lines they send. An input
+ * thread gives them to {@link Reasoner#addInput(String)} in the order they arrived, so
+ * a client can send many lines without waiting for replies, and a cycle count steps a
+ * reasoner which is not running on its own without holding up the selector. Lines
+ * beyond MAX_PENDING_INPUT are answered with an ERR line and dropped.
+ * <p>
+ * Every client gets OUT, Answer and EXE events by default; the line
+ * {@code *output=answer,err} changes which channels it gets. Invalid input is
+ * answered with an ERR line to the sending client only.
+ */
+public class NarseseServer implements Runnable, EventObserver {
+
+    /** channels a new client gets */
+    public static final Class[] DefaultClientEvents = new Class[] { OUT.class, Answer.class, EXE.class };
+    /** longest accepted input line, in bytes */
+    public static final int MAX_LINE_LENGTH = 1 << 16;
+    /** output kept for a client which does not read, in bytes; further output to it is dropped */
+    public static final int MAX_PENDING_OUTPUT = 1 << 20;
+    /** lines queued for the input thread */
+    public static final int MAX_PENDING_INPUT = 10000;
+
+    private static final String OUTPUT_COMMAND = "*output=";
+
+    private final Reasoner reasoner;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(8192);
+    private final StringBuilder format = new StringBuilder();
+    private final BlockingQueue<Line> input = new ArrayBlockingQueue<>(MAX_PENDING_INPUT);
+    private volatile Thread thread = null;
+    private volatile Thread inputThread = null;
+    private volatile boolean stopped = false;
+    private volatile IOException error = null;
+
+    private final class Client {
+        final SocketChannel channel;
+        final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+        volatile Set<Class> events = new HashSet<>(Arrays.asList(DefaultClientEvents));
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        boolean closing = false;
+
+        Client(final SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void error(final String message) {
+            send(("ERR: " + message + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        void send(final byte[] bytes) {
+            if (pending.addAndGet(bytes.length) > MAX_PENDING_OUTPUT) {
+                pending.addAndGet(-bytes.length);
+                return;
+            }
+            output.add(ByteBuffer.wrap(bytes));
+        }
+    }
+
+    private static final class Line {
+        final Client client;
+        final String text;
+
+        Line(final Client client, final String text) {
+            this.client = client;
+            this.text = text;
+        }
+    }
+
+    /**
+     * @param reasoner reasoner to serve
+     * @param port port to listen on, 0 for any free port
+     */
+    public NarseseServer(final Reasoner reasoner, final int port) throws IOException {
+        this.reasoner = reasoner;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /** @return the port the server listens on */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /** @return the amount of connected clients */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /** subscribes to the output of the reasoner and starts the selector and input threads */
+    public NarseseServer start() {
+        reasoner.event(this, true, OutputHandler.DefaultOutputEvents);
+        final Thread in = new Thread(this::input, "Narsese server input " + getPort());
+        in.setDaemon(true);
+        inputThread = in;
+        in.start();
+        final Thread t = new Thread(this, "Narsese server " + getPort());
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+        return this;
+    }
+
+    /** @return whether the server serves clients, false once stopped or failed */
+    public boolean isRunning() {
+        return !stopped;
+    }
+
+    /** @return the failure which stopped the server, null if none */
+    public IOException getError() {
+        return error;
+    }
+
+    /** closes the server and all of its connections, queued input is dropped */
+    public void stop() {
+        stopped = true;
+        reasoner.event(this, false, OutputHandler.DefaultOutputEvents);
+        final Thread in = inputThread;
+        if (in != null) {
+            in.interrupt();
+        }
+        selector.wakeup();
+    }
+
+    /**
+     * Main loop of the selector thread, should not be called directly
+     */
+    @Override
+    public void run() {
+        try {
+            while (!stopped) {
+                selector.select();
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key, (Client) key.attachment());
+                    }
+                }
+                for (final Client c : clients) {
+                    write(c);
+                }
+            }
+        } catch (final IOException e) {
+            error = e;
+            Logger.getLogger(NarseseServer.class.getName()).log(Level.SEVERE, "Narsese server failed", e);
+            for (final Client c : clients) {
+                c.error(e.toString());
+                write(c);
+            }
+        } finally {
+            stop();
+            for (final Client c : clients) {
+                close(c);
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (final IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        final Client c = new Client(channel);
+        channel.register(selector, SelectionKey.OP_READ, c);
+        clients.add(c);
+    }
+
+    private void read(final SelectionKey key, final Client c) {
+        int n;
+        try {
+            readBuffer.clear();
+            n = c.channel.read(readBuffer);
+        } catch (final IOException e) {
+            close(c);
+            return;
+        }
+        if (n < 0) {
+            //the client finished sending, its remaining output is still written
+            c.closing = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            final byte b = readBuffer.get();
+            if (b == '\n') {
+                final String text = new String(c.line, 0, c.lineLength, StandardCharsets.UTF_8);
+                c.lineLength = 0;
+                input(c, text);
+                continue;
+            }
+            if (c.lineLength == c.line.length) {
+                if (c.lineLength == MAX_LINE_LENGTH) {
+                    close(c);
+                    return;
+                }
+                c.line = Arrays.copyOf(c.line, Math.min(MAX_LINE_LENGTH, c.lineLength * 2));
+            }
+            c.line[c.lineLength++] = b;
+        }
+    }
+
+    private void input(final Client c, final String line) {
+        final String text = line.trim();
+        if (text.startsWith(OUTPUT_COMMAND)) {
+            c.events = channels(text.substring(OUTPUT_COMMAND.length()));
+            return;
+        }
+        if (!input.offer(new Line(c, text))) {
+            c.error("input queue full, dropped " + text);
+        }
+    }
+
+    /** main loop of the input thread, the only thread which gives input to the reasoner */
+    private void input() {
+        try {
+            while (!stopped) {
+                final Line l = input.take();
+                try {
+                    reasoner.addInput(l.text);
+                } catch (final RuntimeException e) {
+                    l.client.error(e.toString());
+                    selector.wakeup();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** @return the output channels named in a comma separated list */
+    private static Set<Class> channels(final String names) {
+        final Set<Class> r = new HashSet<>();
+        for (final String name : names.split(",")) {
+            final String n = name.trim().toLowerCase(Locale.ROOT);
+            for (final Class c : OutputHandler.DefaultOutputEvents) {
+                if (c.getSimpleName().toLowerCase(Locale.ROOT).equals(n)) {
+                    r.add(c);
+                }
+            }
+        }
+        return r;
+    }
+
+    private void write(final Client c) {
+        final SelectionKey key = c.channel.keyFor(selector);
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        try {
+            ByteBuffer b;
+            while ((b = c.output.peek()) != null) {
+                final int n = c.channel.write(b);
+                c.pending.addAndGet(-n);
+                if (b.hasRemaining()) {
+                    break;
+                }
+                c.output.poll();
+            }
+        } catch (final IOException e) {
+            close(c);
+            return;
+        }
+        if (c.output.isEmpty()) {
+            if (c.closing) {
+                close(c);
+                return;
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void close(final Client c) {
+        clients.remove(c);
+        try {
+            c.channel.close();
+        } catch (final IOException ignored) {
+        }
+    }
+
+    /**
+     * Output event of the reasoner, queued to the clients which want the channel
+     */
+    @Override
+    public synchronized void event(final Class event, final Object[] args) {
+        byte[] bytes = null;
+        for (final Client c : clients) {
+            if (!c.events.contains(event)) {
+                continue;
+            }
+            if (bytes == null) {
+                final String s = format(event, args[0]);
+                if (s == null) {
+                    return;
+                }
+                bytes = (s + "\n").getBytes(StandardCharsets.UTF_8);
+            }
+            c.send(bytes);
+        }
+        if (bytes != null && Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    private String format(final Class event, final Object signal) {
+        if (reasoner instanceof Nar) {
+            return TextOutputHandler.getOutputString(event, signal, true, false, (Nar) reasoner, format);
+        }
+        return event.getSimpleName() + ": " + signal;
+    }
+}
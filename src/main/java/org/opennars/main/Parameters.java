@@ -255,4 +255,40 @@ public class Parameters implements Serializable {
 
     /** Sequence bag forget durations **/
     public float EVENT_FORGET_DURATIONS = 4.0f;
+
+    /** Capacity of the queue of parsed stream input, the reading thread waits when it is full */
+    public int INPUT_QUEUE_CAPACITY = 10000;
+
+    /** Maximum amount of queued stream input tasks taken per cycle */
+    public int INPUT_TASKS_PER_CYCLE = 100;
+
+    /** Cycles between forced writes of the task journal to disk */
+    public int JOURNAL_SYNC_CYCLES = 100;
+
+    /** Cycles between snapshots which truncate the task journal */
+    public int JOURNAL_SNAPSHOT_CYCLES = 10000;
+
+    /** Size in pixels from which visual spaces are compared by FFT cross-correlation, 0 to always compare directly */
+    public int VISUAL_CORRELATION_FFT_PIXELS = 1024;
+
+    /** Threads running the operators marked async */
+    public int ASYNC_OPERATOR_THREADS = 2;
+
+    /** Maximum amount of async operator executions whose feedback wasn't input yet */
+    public int ASYNC_OPERATOR_MAX_IN_FLIGHT = 16;
+
+    /** Milliseconds after which a running async operator execution is cancelled */
+    public int ASYNC_OPERATOR_TIMEOUT_MS = 10000;
+
+    /** Results memoized per pure function operator, 0 to recompute them on every call */
+    public int FUNCTION_CACHE_SIZE = 256;
+
+    /** Estimated heap the concepts may retain in megabytes, beyond which the concept bag evicts, 0 to bound it by CONCEPT_BAG_SIZE only */
+    public int CONCEPT_BAG_MEGABYTES = 0;
+
+    /** Concepts read back from the concept archive per cycle */
+    public int ARCHIVE_READS_PER_CYCLE = 16;
+
+    /** Kilobytes of concepts appended to the concept archive and of records copied by its compaction per cycle */
+    public int ARCHIVE_WRITE_KILOBYTES_PER_CYCLE = 256;
 }
@@ -0,0 +1,209 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.main;
+
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.Task;
+import org.opennars.entity.TruthValue;
+import org.opennars.io.ChannelReader;
+import org.opennars.io.ChannelWriter;
+import org.opennars.io.Narsese;
+import org.opennars.io.Symbols;
+import org.opennars.language.Tense;
+import org.opennars.language.Term;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.opennars.inference.BudgetFunctions.truthToQuality;
+
+/**
+ * Typed input of sensor events, which become judgments without going through Narsese text
+ * <p>
+ * An event is a term, given directly or by the id it was defined with, together with
+ * frequency, confidence and occurrence time. Events are collected and input as one batch
+ * by {@link #flush()}; events of sensory channels go to their channel right away.
+ * <p>
+ * Events can also be read from a binary stream, which is a sequence of frames:
+ * <pre>
+ * DEFINE: kind, id, term in Narsese
+ * BATCH:  kind, event count, then per event id, frequency, confidence, occurrence delta
+ * </pre>
+ * Ids and counts are varints, occurrence times are zigzag varints relative to the
+ * previous event of the batch, the first relative to 0. Each batch is input at once.
+ */
+public class SensorInput {
+
+    public static final byte DEFINE = 0;
+    public static final byte BATCH = 1;
+
+    private final Nar nar;
+    private final List<Term> terms = new ArrayList<>();
+    private final Map<Term, Integer> ids = new HashMap<>();
+    private final List<Task> pending = new ArrayList<>();
+
+    public SensorInput(final Nar nar) {
+        this.nar = nar;
+    }
+
+    /** @return the id of the term, which is assigned if the term has none yet */
+    public int define(final Term term) {
+        final Integer id = ids.get(term);
+        if (id != null) {
+            return id;
+        }
+        define(terms.size(), term);
+        return terms.size() - 1;
+    }
+
+    /** @return the id of the term given in Narsese */
+    public int define(final String term) throws Narsese.InvalidInputException {
+        return define(nar.narsese().parseTerm(term));
+    }
+
+    /** assigns the id to the term, replacing an earlier definition */
+    public void define(final int id, final Term term) {
+        while (terms.size() <= id) {
+            terms.add(null);
+        }
+        final Term old = terms.set(id, term);
+        if (old != null) {
+            ids.remove(old);
+        }
+        ids.put(term, id);
+    }
+
+    /** @return the term of the id, null if it isn't defined */
+    public Term term(final int id) {
+        return id < terms.size() ? terms.get(id) : null;
+    }
+
+    /**
+     * Creates the judgment of an event
+     *
+     * @param occurrenceTime occurrence time, {@link Stamp#ETERNAL} for an eternal judgment
+     */
+    public Task event(final Term term, final float frequency, final float confidence, final long occurrenceTime) {
+        final Parameters param = nar.narParameters;
+        final boolean eternal = occurrenceTime == Stamp.ETERNAL;
+        final Stamp stamp = new Stamp(nar.time(), eternal ? Tense.Eternal : Tense.Present, nar.memory.newStampSerial(), param.DURATION);
+        if (!eternal) {
+            stamp.setOccurrenceTime(occurrenceTime);
+        }
+        final TruthValue truth = new TruthValue(frequency, confidence, param);
+        final Sentence sentence = new Sentence(term, Symbols.JUDGMENT_MARK, truth, stamp);
+        final BudgetValue budget = new BudgetValue(param.DEFAULT_JUDGMENT_PRIORITY, param.DEFAULT_JUDGMENT_DURABILITY, truthToQuality(truth), param);
+        return new Task(sentence, budget, Task.EnumType.INPUT);
+    }
+
+    /** adds an event, which is input with the next {@link #flush()} */
+    public void add(final Term term, final float frequency, final float confidence, final long occurrenceTime) {
+        final Task task = event(term, frequency, confidence, occurrenceTime);
+        if (!nar.addToSensoryChannel(task)) {
+            pending.add(task);
+        }
+    }
+
+    /** adds an event of a defined term */
+    public void add(final int id, final float frequency, final float confidence, final long occurrenceTime) {
+        final Term term = term(id);
+        if (term == null) {
+            throw new IllegalArgumentException("Undefined sensor term id: " + id);
+        }
+        add(term, frequency, confidence, occurrenceTime);
+    }
+
+    /**
+     * Inputs the added events
+     *
+     * @return the amount of events input
+     */
+    public int flush() {
+        final int n = pending.size();
+        if (n > 0) {
+            nar.memory.inputTasks(nar, pending, true);
+            pending.clear();
+        }
+        return n;
+    }
+
+    /**
+     * Reads and inputs all frames of a stream
+     *
+     * @return the amount of events read
+     */
+    public long read(final ChannelReader in) throws IOException, Narsese.InvalidInputException {
+        long n = 0;
+        while (in.hasMore()) {
+            n += readFrame(in);
+        }
+        return n;
+    }
+
+    /**
+     * Reads and inputs one frame
+     *
+     * @return the amount of events read, 0 for a definition
+     */
+    public int readFrame(final ChannelReader in) throws IOException, Narsese.InvalidInputException {
+        final int kind = in.readByte();
+        if (kind == DEFINE) {
+            final int id = in.readVarInt();
+            define(id, nar.narsese().parseTerm(in.readString()));
+            return 0;
+        }
+        if (kind != BATCH) {
+            throw new IOException("Unknown sensor frame kind: " + kind);
+        }
+        final int count = in.readVarInt();
+        long occurrenceTime = 0;
+        for (int i = 0; i < count; i++) {
+            final int id = in.readVarInt();
+            final float frequency = in.readFloat();
+            final float confidence = in.readFloat();
+            occurrenceTime += in.readSignedVarLong();
+            add(id, frequency, confidence, occurrenceTime);
+        }
+        flush();
+        return count;
+    }
+
+    /** writes a definition frame */
+    public static void writeDefinition(final ChannelWriter out, final int id, final CharSequence term) throws IOException {
+        out.writeByte(DEFINE);
+        out.writeVarInt(id);
+        out.writeString(term);
+    }
+
+    /** writes a batch frame of the first n events of the arrays */
+    public static void writeBatch(final ChannelWriter out, final int n, final int[] ids, final float[] frequencies,
+                                  final float[] confidences, final long[] occurrenceTimes) throws IOException {
+        out.writeByte(BATCH);
+        out.writeVarInt(n);
+        long last = 0;
+        for (int i = 0; i < n; i++) {
+            out.writeVarInt(ids[i]);
+            out.writeFloat(frequencies[i]);
+            out.writeFloat(confidences[i]);
+            out.writeSignedVarLong(occurrenceTimes[i] - last);
+            last = occurrenceTimes[i];
+        }
+    }
+}
@@ -63,45 +63,6 @@ public class Shell {
         this.nar = n;
     }
 
-    private class InputThread extends Thread
-    {
-      private final BufferedReader bufIn;
-      final Nar nar;
-      InputThread(final InputStream in, final Nar nar)
-      {
-        this.bufIn = new BufferedReader(new InputStreamReader(in));
-        this.nar=nar;
-      }
-      public void run()
-      {
-        while(true)
-        {
-            try {
-                final String line=bufIn.readLine();
-                if(line!=null) {
-                    try {
-                        nar.addInput(line);
-                    } catch(Exception ex) {
-                        if(MiscFlags.DEBUG) {
-                            throw new IllegalStateException("error parsing:" +line, ex);
-                        }
-                        System.out.println("parsing error");
-                    }
-                }
-                
-            } catch (final IOException e) {
-                throw new IllegalStateException("Could not read line.", e);
-            }
-
-            try {
-                Thread.sleep(1);
-            } catch (final InterruptedException e) {
-                throw new IllegalStateException("Unexpectadly interrupted while sleeping.", e);
-            }
-        }
-      }
-    }
-    
     /**
      * non-static equivalent to {@link #main(String[])} : finish to completion from
  an addInput file
@@ -110,7 +71,7 @@ public class Shell {
         final TextOutputHandler output = new TextOutputHandler(nar, new PrintWriter(out, true));
         output.setErrors(true);
         output.setErrorStackTrace(true);
-        final InputThread it;
+        StreamInput input = null;
         final int sleep = -1;
         final boolean noFile = false;
         
@@ -118,8 +79,7 @@ public class Shell {
             nar.addInputFile(args[0]);
         }
         if(args.length == 0 || noFile) {   
-            it=new InputThread(System.in,nar);
-            it.start();
+            input = new StreamInput(nar, System.in).start();
             //nar.addInput(new TextInput(new BufferedReader(new InputStreamReader(System.in))));
         }
                while (true) {
@@ -127,6 +87,9 @@ public class Shell {
                 log("NARSBatch.run():"
                         + " step " + nar.time());
             
+            if (input != null) {
+                input.drain();
+            }
             nar.cycles(1);
             try {
                 if(sleep > -1) {
@@ -0,0 +1,149 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.main;
+
+import org.apache.commons.lang3.StringUtils;
+import org.opennars.entity.Task;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Narsese input from a stream, read and parsed by an own thread into a bounded queue
+ * <p>
+ * The reasoning thread takes the parsed input with {@link #drain()} between cycles,
+ * at most INPUT_TASKS_PER_CYCLE tasks at a time. When the queue is full the reading
+ * thread waits, which slows down the producer of the stream.
+ * <p>
+ * A cycle count in the input lets that many cycles pass before the following input is taken.
+ */
+public class StreamInput {
+
+    private final Nar nar;
+    private final BufferedReader reader;
+    /* parsed tasks and command lines */
+    private final BlockingQueue<Object> queue;
+    private volatile boolean finished = false;
+    /** cycles to wait before taking more input, requested by a cycle count in the input */
+    private long waitCycles = 0;
+
+    public StreamInput(final Nar nar, final InputStream in) {
+        this(nar, new InputStreamReader(in), nar.narParameters.INPUT_QUEUE_CAPACITY);
+    }
+
+    public StreamInput(final Nar nar, final Reader in, final int capacity) {
+        this.nar = nar;
+        this.reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /** starts the reading thread */
+    public StreamInput start() {
+        final Thread thread = new Thread(this::read, "Narsese input");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    private void read() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String text = line.trim();
+                //Ignore any input that is just a comment
+                if (text.isEmpty() || text.startsWith("'") || text.startsWith("//")) {
+                    continue;
+                }
+                if (text.startsWith("*") || StringUtils.isNumeric(text)) {
+                    queue.put(text);
+                    continue;
+                }
+                final Task task;
+                try {
+                    task = nar.narsese().parseTask(text);
+                } catch (final Exception ex) {
+                    if (MiscFlags.DEBUG) {
+                        throw new IllegalStateException("error parsing:" + text, ex);
+                    }
+                    System.out.println("parsing error");
+                    continue;
+                }
+                queue.put(task);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Could not read line.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finished = true;
+        }
+    }
+
+    /**
+     * Inputs the queued tasks and commands, up to the per cycle budget, to be called between cycles
+     *
+     * @return the amount of tasks input
+     */
+    public int drain() {
+        if (waitCycles > 0) {
+            waitCycles--;
+            return 0;
+        }
+        final int budget = nar.narParameters.INPUT_TASKS_PER_CYCLE;
+        final List<Task> tasks = new ArrayList<>();
+        int n = 0;
+        while (n < budget) {
+            final Object o = queue.poll();
+            if (o == null) {
+                break;
+            }
+            if (o instanceof Task) {
+                final Task task = (Task) o;
+                if (!nar.addToSensoryChannel(task)) {
+                    tasks.add(task);
+                }
+                n++;
+                continue;
+            }
+            //commands see the tasks before them
+            if (!tasks.isEmpty()) {
+                nar.memory.inputTasks(nar, tasks, true);
+                tasks.clear();
+            }
+            final String command = (String) o;
+            if (StringUtils.isNumeric(command)) {
+                waitCycles = Long.parseLong(command) - 1;
+                break;
+            }
+            nar.addInput(command);
+        }
+        if (!tasks.isEmpty()) {
+            nar.memory.inputTasks(nar, tasks, true);
+        }
+        return n;
+    }
+
+    /** @return whether the stream ended and all of its input was taken */
+    public boolean isFinished() {
+        return finished && queue.isEmpty();
+    }
+}
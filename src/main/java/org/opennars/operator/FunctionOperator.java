@@ -21,9 +21,13 @@ import org.opennars.io.Symbols;
 import org.opennars.language.CompoundTerm;
 import org.opennars.language.Term;
 import org.opennars.language.Variable;
+import org.opennars.main.Nar;
 import org.opennars.storage.Memory;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.opennars.inference.BudgetFunctions.truthToQuality;
 
@@ -40,6 +44,80 @@ public abstract class FunctionOperator extends Operator {
         super(name);
     }
 
+    /* results of earlier calls by argument terms, null if not memoizing */
+    private Map<List<Term>, Term> cache = null;
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+
+    /** (can be overridden in subclasses) whether the function only depends on its arguments, so its results can be memoized */
+    protected boolean isPure() {
+        return false;
+    }
+
+    @Override
+    public boolean setEnabled(final Nar n, final boolean enabled) {
+        super.setEnabled(n, enabled);
+        if (isPure() && n.narParameters.FUNCTION_CACHE_SIZE > 0) {
+            memoize(n.narParameters.FUNCTION_CACHE_SIZE);
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the results of the last calls, the least recently used are dropped first
+     *
+     * @param capacity maximum amount of results kept, 0 to stop memoizing
+     */
+    public synchronized void memoize(final int capacity) {
+        if (capacity <= 0) {
+            cache = null;
+            return;
+        }
+        cache = new LinkedHashMap<List<Term>, Term>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<List<Term>, Term> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** @return amount of calls answered by memoized results */
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    /** @return amount of calls which computed the function while memoizing */
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /** y = function(x), memoized if enabled */
+    private Term evaluate(final Memory memory, final Term[] x) {
+        final List<Term> key;
+        synchronized (this) {
+            if (cache == null) {
+                key = null;
+            } else {
+                key = Arrays.asList(x);
+                final Term y = cache.get(key);
+                if (y != null) {
+                    cacheHits++;
+                    return y;
+                }
+                cacheMisses++;
+            }
+        }
+        final Term y = function(memory, x);
+        if (key != null && y != null) {
+            synchronized (this) {
+                if (cache != null) {
+                    cache.put(key, y);
+                }
+            }
+        }
+        return y;
+    }
+
     /** y = function(x) 
      * @return y, or null if unsuccessful
      */
@@ -86,7 +164,7 @@ public abstract class FunctionOperator extends Operator {
         
         final Term y;
         //try {
-            y = function(m, x);
+            y = evaluate(m, x);
             if (y == null) {
                 return null;
             }
@@ -48,6 +48,9 @@ public abstract class Operator extends Term implements Plugin {
     }
 
     public Nar nar;
+
+    /** whether execute runs on the operator executor of the memory, see {@link OperatorExecutor} */
+    public boolean async = false;
     
     @Override
     public boolean setEnabled(final Nar n, final boolean enabled) {
@@ -76,24 +79,15 @@ public abstract class Operator extends Term implements Plugin {
     * @param args The arguments to be taken by the operator
     * @param memory The memory on which the operation is executed
     * @param time used to retrieve the time
-    * @return true if successful, false if an error occurred
+    * @return true if successful, false if an error occurred or an async operator
+    * can't be started because too many executions are in flight
     */
     public final boolean call(final Operation operation, final Term[] args, final Memory memory, final Timable time) {
-        final List<Task> feedback = execute(operation, args, memory, time);
-
-        if(feedback == null || feedback.isEmpty()) { //null operator case
-            memory.executedTask(time, operation, new TruthValue(1f,executionConfidence, memory.narParameters));
+        if (async) {
+            return memory.operatorExecutor().submit(this, operation, args, time);
         }
-
-        reportExecution(operation, args, feedback, memory);
-
-
-        if (feedback!=null) {
-            for (final Task t : feedback) {
-                memory.inputTask(time, t);
-            }
-        }
-
+        final List<Task> feedback = execute(operation, args, memory, time);
+        feedback(operation, args, feedback, memory, time);
         return true;
 //        catch (NegativeFeedback n) {
 //            
@@ -119,7 +113,26 @@ public abstract class Operator extends Term implements Plugin {
 //            }
 //        }
     }
-    
+
+
+    /**
+     * Inputs the result of an execution: the feedback tasks, or the executed operation
+     * itself if there are none
+     */
+    final void feedback(final Operation operation, final Term[] args, final List<Task> feedback, final Memory memory, final Timable time) {
+        if(feedback == null || feedback.isEmpty()) { //null operator case
+            memory.executedTask(time, operation, new TruthValue(1f,executionConfidence, memory.narParameters));
+        }
+
+        reportExecution(operation, args, feedback, memory);
+
+
+        if (feedback!=null) {
+            for (final Task t : feedback) {
+                memory.inputTask(time, t);
+            }
+        }
+    }
    
     public static String operationExecutionString(final Statement operation) {
         final Term operator = operation.getPredicate();
@@ -0,0 +1,154 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.operator;
+
+import org.opennars.entity.Task;
+import org.opennars.interfaces.Timable;
+import org.opennars.language.Term;
+import org.opennars.main.Parameters;
+import org.opennars.storage.Memory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the operators marked async on a fixed pool of threads
+ * <p>
+ * The feedback of a finished execution is input by {@link #deliver(Timable)}, which the
+ * memory calls at the start of each cycle, so the reasoning thread never waits for an
+ * operator. At most ASYNC_OPERATOR_MAX_IN_FLIGHT executions are pending at a time, and
+ * executions running longer than ASYNC_OPERATOR_TIMEOUT_MS are cancelled. Threads idle
+ * for KEEP_ALIVE_SECONDS end, so a reasoner which stopped using async operators, or was
+ * dropped, does not keep any.
+ */
+public class OperatorExecutor {
+
+    /** seconds after which an idle thread of the pool ends */
+    public static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final class Execution {
+        final Operator operator;
+        final Operation operation;
+        final Term[] args;
+        final Future<List<Task>> result;
+        final long deadline;
+
+        Execution(final Operator operator, final Operation operation, final Term[] args, final Future<List<Task>> result, final long deadline) {
+            this.operator = operator;
+            this.operation = operation;
+            this.args = args;
+            this.result = result;
+            this.deadline = deadline;
+        }
+    }
+
+    private final Memory memory;
+    private final Parameters narParameters;
+    private final ExecutorService pool;
+    private final Queue<Execution> pending = new ConcurrentLinkedQueue<>();
+
+    public OperatorExecutor(final Memory memory) {
+        this.memory = memory;
+        this.narParameters = memory.narParameters;
+        final int threads = Math.max(1, narParameters.ASYNC_OPERATOR_THREADS);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                final Thread t = new Thread(r, "Operator execution");
+                t.setDaemon(true);
+                return t;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        this.pool = executor;
+    }
+
+    /**
+     * Starts the execution of an operation
+     *
+     * @return false if the in-flight limit is reached and the operation isn't executed
+     */
+    boolean submit(final Operator operator, final Operation operation, final Term[] args, final Timable time) {
+        if (pending.size() >= narParameters.ASYNC_OPERATOR_MAX_IN_FLIGHT) {
+            return false;
+        }
+        final Future<List<Task>> result = pool.submit(() -> operator.execute(operation, args, memory, time));
+        final long deadline = System.nanoTime() + narParameters.ASYNC_OPERATOR_TIMEOUT_MS * 1000000L;
+        pending.add(new Execution(operator, operation, args, result, deadline));
+        return true;
+    }
+
+    /** @return the amount of executions which weren't delivered yet */
+    public int inFlight() {
+        return pending.size();
+    }
+
+    /**
+     * Inputs the feedback of the finished executions and cancels the timed out ones
+     *
+     * @return the amount of executions delivered or cancelled
+     */
+    public int deliver(final Timable time) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        int n = 0;
+        final long now = System.nanoTime();
+        final Iterator<Execution> it = pending.iterator();
+        while (it.hasNext()) {
+            final Execution e = it.next();
+            if (e.result.isDone()) {
+                it.remove();
+                n++;
+                try {
+                    e.operator.feedback(e.operation, e.args, e.result.get(), memory, time);
+                } catch (final ExecutionException ex) {
+                    Operator.reportExecution(e.operation, e.args, ex.getCause(), memory);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return n;
+                }
+            } else if (now - e.deadline > 0) {
+                it.remove();
+                n++;
+                e.result.cancel(true);
+                Operator.reportExecution(e.operation, e.args,
+                    new TimeoutException("no result after " + narParameters.ASYNC_OPERATOR_TIMEOUT_MS + "ms"), memory);
+            }
+        }
+        return n;
+    }
+
+    /** cancels the pending executions */
+    public void cancel() {
+        Execution e;
+        while ((e = pending.poll()) != null) {
+            e.result.cancel(true);
+        }
+    }
+
+    /** cancels the pending executions and stops the threads */
+    public void shutdown() {
+        cancel();
+        pool.shutdownNow();
+    }
+}
@@ -28,6 +28,11 @@ public class Add extends FunctionOperator {
         super("^add");
     }
 
+    @Override
+    protected boolean isPure() {
+        return true;
+    }
+
     @Override
     protected Term function(final Memory memory, final Term[] x) {
         if (x.length!= 2) {
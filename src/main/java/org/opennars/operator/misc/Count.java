@@ -46,6 +46,11 @@ public class Count extends FunctionOperator {
     final static Term counted = Term.get("counted");
     
     
+    @Override
+    protected boolean isPure() {
+        return true;
+    }
+
     @Override
     protected Term function(final Memory memory, final Term[] x) {
         if (x.length!=1) {
@@ -48,14 +48,15 @@ public class MathExpression  extends FunctionOperator {
     final static Term exp = Term.get("math");
     
     
+    @Override
+    protected boolean isPure() {
+        return true;
+    }
+
     @Override
     protected Term function(final Memory memory, final Term[] x) {
 
-        //TODO this may not be thread-safe, this block may need synchronized:
-        if (context == null) {
-            context = new EncogProgramContext();            
-            context.loadAllFunctions();
-        }
+        final EncogProgramContext context = context();
         
         if (x.length!=1) {
             throw new IllegalStateException(requireMessage);
@@ -75,6 +76,15 @@ public class MathExpression  extends FunctionOperator {
         return getTerm(p.getRootNode());
     }
 
+    /** the shared program context, also when executed async by several threads */
+    private static synchronized EncogProgramContext context() {
+        if (context == null) {
+            context = new EncogProgramContext();
+            context.loadAllFunctions();
+        }
+        return context;
+    }
+
     @Override
     protected Term getRange() {
         return exp;
@@ -40,6 +40,11 @@ public class Reflect extends FunctionOperator {
     final static String requireMessage = "Requires 1 Term argument";    
     
     
+    @Override
+    protected boolean isPure() {
+        return true;
+    }
+
     @Override
     protected Term function(final Memory memory, final Term[] x) {
         
@@ -253,11 +253,11 @@ public class InternalExperience implements Plugin, EventObserver {
         
         final Memory memory = nal.memory;
     
-        if (Memory.randomNumber.nextDouble() < INTERNAL_EXPERIENCE_RARE_PROBABILITY ) {
+        if (memory.randomNumber.nextDouble() < INTERNAL_EXPERIENCE_RARE_PROBABILITY ) {
             
             //the operators which dont have a innate belief
             //also get a chance to reveal its effects to the system this way
-            final Operator op=memory.getOperator(nonInnateBeliefOperators[Memory.randomNumber.nextInt(nonInnateBeliefOperators.length)]);
+            final Operator op=memory.getOperator(nonInnateBeliefOperators[memory.randomNumber.nextInt(nonInnateBeliefOperators.length)]);
             
             final Product prod=new Product(belief.term);
             
@@ -282,7 +282,7 @@ public class InternalExperience implements Plugin, EventObserver {
             }
         }
 
-        if (beliefTerm instanceof Implication && Memory.randomNumber.nextDouble()<=INTERNAL_EXPERIENCE_PROBABILITY) {
+        if (beliefTerm instanceof Implication && memory.randomNumber.nextDouble()<=INTERNAL_EXPERIENCE_PROBABILITY) {
             final Implication imp=(Implication) beliefTerm;
             if(imp.getTemporalOrder()==TemporalRules.ORDER_FORWARD) {
                 //1. check if its (&/,term,+i1,...,+in) =/> anticipateTerm form:
@@ -0,0 +1,157 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.plugin.perception;
+
+/**
+ * Window sums of two equally sized matrices for all relative shifts, with the
+ * products summed by FFT
+ * <p>
+ * For a shift (oi, oj) the overlap pairs a[i+oi][j+oj] with b[i][j].
+ */
+final class CrossCorrelation {
+
+    private final int height;
+    private final int width;
+    /** padded size, large enough that negative shifts don't wrap onto positive ones */
+    private final int rows;
+    private final int cols;
+    private final double[] products;
+    private final double[] prefixA;
+    private final double[] prefixB;
+
+    CrossCorrelation(final float[][] a, final float[][] b, final int height, final int width) {
+        this.height = height;
+        this.width = width;
+        this.rows = powerOfTwo(2 * height - 1);
+        this.cols = powerOfTwo(2 * width - 1);
+        final int n = rows * cols;
+        final double[] are = new double[n], aim = new double[n];
+        final double[] bre = new double[n], bim = new double[n];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                are[i * cols + j] = a[i][j];
+                bre[i * cols + j] = b[i][j];
+            }
+        }
+        fft2(are, aim, false);
+        fft2(bre, bim, false);
+        //A * conj(B)
+        for (int k = 0; k < n; k++) {
+            final double re = are[k] * bre[k] + aim[k] * bim[k];
+            final double im = aim[k] * bre[k] - are[k] * bim[k];
+            are[k] = re;
+            aim[k] = im;
+        }
+        fft2(are, aim, true);
+        this.products = are;
+        this.prefixA = prefixSums(a);
+        this.prefixB = prefixSums(b);
+    }
+
+    /** @return sum of a[i+oi][j+oj] * b[i][j] over the overlap */
+    double sumProducts(final int oi, final int oj) {
+        return products[Math.floorMod(oi, rows) * cols + Math.floorMod(oj, cols)];
+    }
+
+    /** @return sum of a over the overlap */
+    double sumA(final int oi, final int oj) {
+        return rect(prefixA, Math.max(0, oi), Math.min(height, height + oi), Math.max(0, oj), Math.min(width, width + oj));
+    }
+
+    /** @return sum of b over the overlap */
+    double sumB(final int oi, final int oj) {
+        return rect(prefixB, Math.max(0, -oi), Math.min(height, height - oi), Math.max(0, -oj), Math.min(width, width - oj));
+    }
+
+    private double rect(final double[] prefix, final int i0, final int i1, final int j0, final int j1) {
+        if (i0 >= i1 || j0 >= j1) {
+            return 0;
+        }
+        final int w = width + 1;
+        return prefix[i1 * w + j1] - prefix[i0 * w + j1] - prefix[i1 * w + j0] + prefix[i0 * w + j0];
+    }
+
+    private double[] prefixSums(final float[][] m) {
+        final int w = width + 1;
+        final double[] prefix = new double[(height + 1) * w];
+        for (int i = 0; i < height; i++) {
+            double row = 0;
+            for (int j = 0; j < width; j++) {
+                row += m[i][j];
+                prefix[(i + 1) * w + j + 1] = prefix[i * w + j + 1] + row;
+            }
+        }
+        return prefix;
+    }
+
+    private static int powerOfTwo(final int n) {
+        int p = 1;
+        while (p < n) {
+            p <<= 1;
+        }
+        return p;
+    }
+
+    /** in-place 2D FFT of a rows x cols matrix, rows first, then columns */
+    private void fft2(final double[] re, final double[] im, final boolean inverse) {
+        for (int i = 0; i < rows; i++) {
+            fft(re, im, i * cols, 1, cols, inverse);
+        }
+        for (int j = 0; j < cols; j++) {
+            fft(re, im, j, cols, rows, inverse);
+        }
+    }
+
+    /** in-place radix-2 FFT of the n elements at offset, offset+stride, ..., scaled by 1/n when inverse */
+    private static void fft(final double[] re, final double[] im, final int offset, final int stride, final int n, final boolean inverse) {
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                final int a = offset + i * stride, b = offset + j * stride;
+                double t = re[a]; re[a] = re[b]; re[b] = t;
+                t = im[a]; im[a] = im[b]; im[b] = t;
+            }
+        }
+        for (int len = 2; len <= n; len <<= 1) {
+            final double angle = 2 * Math.PI / len * (inverse ? 1 : -1);
+            final double wre = Math.cos(angle), wim = Math.sin(angle);
+            for (int i = 0; i < n; i += len) {
+                double ure = 1, uim = 0;
+                for (int k = 0; k < len / 2; k++) {
+                    final int a = offset + (i + k) * stride, b = offset + (i + k + len / 2) * stride;
+                    final double vre = re[b] * ure - im[b] * uim;
+                    final double vim = re[b] * uim + im[b] * ure;
+                    re[b] = re[a] - vre;
+                    im[b] = im[a] - vim;
+                    re[a] += vre;
+                    im[a] += vim;
+                    final double nre = ure * wre - uim * wim;
+                    uim = ure * wim + uim * wre;
+                    ure = nre;
+                }
+            }
+        }
+        if (inverse) {
+            for (int i = 0; i < n; i++) {
+                re[offset + i * stride] /= n;
+                im[offset + i * stride] /= n;
+            }
+        }
+    }
+}
@@ -26,9 +26,17 @@ import org.opennars.io.events.Events.ResetEnd;
 import org.opennars.language.*;
 import org.opennars.main.Nar;
 
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
 public class VisionChannel extends SensoryChannel  {
     public final float DEFAULT_OUTPUT_CONFIDENCE = 0.1f;
-    double[][] inputs;
+    float[][] inputs; //reused, VisualSpace copies what it gets
     boolean[][] updated;
     int cnt_updated = 0;
     int px = 0;
@@ -42,7 +50,7 @@ public class VisionChannel extends SensoryChannel  {
         super((Nar)nar,(SensoryChannel)reportResultsTo, width, height, duration, SetInt.make(new Term(label)));
         this.nar = (Nar)nar;
         this.label = SetInt.make(new Term(label));
-        inputs = new double[height][width];
+        inputs = new float[height][width];
         updated = new boolean[height][width];
         obs = (ev, a) -> {
             if(HadNewInput && ev == CycleEnd.class) {
@@ -67,7 +75,7 @@ public class VisionChannel extends SensoryChannel  {
     }
     
     private void resetChannel() {
-        inputs = new double[height][width];
+        inputs = new float[height][width];
         updated = new boolean[height][width];
         cnt_updated = 0;
         px = 0;
@@ -86,7 +94,7 @@ public class VisionChannel extends SensoryChannel  {
                 step_start(time); //flush to upper level what we so far had
             }
             cnt_updated = 0; //this way multiple matrices can be processed by the same vision channel
-            updated = new boolean[height][width];
+            clear(updated);
             subj = cur_subj;
         }
         HadNewInput = true;
@@ -126,17 +134,13 @@ public class VisionChannel extends SensoryChannel  {
         } else {
             V = SetExt.make(new Term(subj+termid));   
         }
-        //the visual space has to be a copy.
-        final float[][] cpy = new float[height][width];
-        for(int i=0;i<height;i++) {
-            for(int j=0;j<width;j++) {
-                cpy[i][j] = (float) inputs[i][j];
-            }
+        //the visual space takes a copy, so the buffers can be cleared for the next frame
+        final VisualSpace vspace = new VisualSpace(nar, inputs, py, px, height, width);
+        clear(updated);
+        for(final float[] row : inputs) {
+            Arrays.fill(row, 0.0f);
         }
-        updated = new boolean[height][width];
-        inputs = new double[height][width];
         subj = "";
-        final VisualSpace vspace = new VisualSpace(nar, cpy, py, px, height, width);
         //attach sensation to term:
         V.imagination = vspace;
         final Stamp stamp = isEternal ? new Stamp(time, nar.memory, Tense.Eternal) : new Stamp(time, nar.memory);
@@ -156,6 +160,53 @@ public class VisionChannel extends SensoryChannel  {
         this.step_finished(time);
     }
     
+    private static void clear(final boolean[][] m) {
+        for(final boolean[] row : m) {
+            Arrays.fill(row, false);
+        }
+    }
+
+    /**
+     * Inputs a whole frame at once, instead of one task per pixel
+     *
+     * @param subject name of the matrix, as in the pixel terms subject[i,j]
+     * @param frame height*width frequencies, row by row
+     * @param eternal whether the resulting judgment is eternal
+     */
+    public Nar addFrame(final String subject, final float[] frame, final boolean eternal, final Timable time) {
+        return addFrame(subject, FloatBuffer.wrap(frame), eternal, time);
+    }
+
+    /**
+     * Inputs a whole frame from a buffer, for example a memory mapped one shared with the
+     * producer of the frames, from its position on; the position isn't changed
+     */
+    public Nar addFrame(final String subject, final FloatBuffer frame, final boolean eternal, final Timable time) {
+        if(frame.remaining() < height * width) {
+            throw new IllegalArgumentException("Frame has " + frame.remaining() + " values, expected " + (height * width));
+        }
+        if(!subj.isEmpty() && !subj.equals(subject)) {
+            step_start(time); //flush the pixels collected so far, as AddToMatrix does
+        }
+        int k = frame.position();
+        for(int i=0;i<height;i++) {
+            for(int j=0;j<width;j++) {
+                inputs[i][j] = frame.get(k++);
+            }
+        }
+        subj = subject;
+        isEternal = eternal;
+        step_start(time);
+        return nar;
+    }
+
+    /** maps a file of frames, floats in native byte order, to be read with {@link #addFrame(String, FloatBuffer, boolean, Timable)} */
+    public static FloatBuffer mapFrames(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+    }
+
     public double getWidth() {
         return this.width;
     }
@@ -16,10 +16,10 @@ package org.opennars.plugin.perception;
 
 import org.opennars.entity.TruthValue;
 import org.opennars.inference.TemporalRules;
-import org.opennars.inference.TruthFunctions;
 import org.opennars.language.Conjunction;
 import org.opennars.language.Term;
 import org.opennars.main.Nar;
+import org.opennars.main.Parameters;
 import org.opennars.operator.ImaginationSpace;
 import org.opennars.operator.NullOperator;
 import org.opennars.operator.Operation;
@@ -28,6 +28,8 @@ import org.opennars.operator.Operator;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.opennars.inference.UtilityFunctions.c2w;
+
 /**
  *
  * @author Patrick
@@ -62,49 +64,98 @@ public class VisualSpace implements ImaginationSpace {
         for(int i=0; i<height; i++) {
             System.arraycopy(source[py + i], px + 0, cropped[i], 0, width);
         }
-        nar.addPlugin(right);
-        nar.addPlugin(left);
-        nar.addPlugin(up);
-        nar.addPlugin(down);
+        if(nar.memory.operators.get(right.name()) != right) { //the shared operators are registered once
+            nar.addPlugin(right);
+            nar.addPlugin(left);
+            nar.addPlugin(up);
+            nar.addPlugin(down);
+        }
         ops.add(right);
         ops.add(left);
         ops.add(up);
         ops.add(down);
     }
 
+    /**
+     * Best truth over all relative shifts of the two spaces that the per pixel abduction or
+     * comparison, revised into a weak prior, gives
+     * <p>
+     * Revision adds the evidence weights, so the revised truth follows from sums over the
+     * overlap: with c the default judgment confidence, the pixels a, b contribute weight
+     * c*c*b (abduction) or c*c*(a+b-a*b) (comparison), and c*c*a*b to the weighted frequency.
+     * The sums of a, b and a*b are computed directly, or by FFT cross-correlation for spaces
+     * of at least VISUAL_CORRELATION_FFT_PIXELS pixels.
+     */
     @Override
     public TruthValue AbductionOrComparisonTo(ImaginationSpace obj, boolean comparison) {
         if(!(obj instanceof VisualSpace)) {
             return new TruthValue(1.0f,0.0f, nar.narParameters);
         }
-        VisualSpace other = (VisualSpace) obj;
-        double kh = ((float) other.height) / ((double) this.height);
-        double kw = ((float) other.width)  / ((double) this.width);
-        TruthValue bestShiftTruth = new TruthValue(0.5f, 0.01f, nar.narParameters);
-        for(int oj=-this.height; oj<this.height; oj++) {
-            for(int oi=-this.width; oi<this.width; oi++) {
-                TruthValue sim = new TruthValue(0.5f, 0.01f, nar.narParameters);
-                for(int i=0; i<this.height; i++) {
-                    for(int j=0; j<this.width; j++) {
-                        int transi = i+oi;
-                        int transj = j+oj;
-                        if(transi >= this.width || transj >= this.height || transi < 0 || transj < 0) {
-                            continue;
+        final VisualSpace other = (VisualSpace) obj;
+        final Parameters param = nar.narParameters;
+        final float[][] b = other.resampled(this.height, this.width);
+        final int fftPixels = param.VISUAL_CORRELATION_FFT_PIXELS;
+        final CrossCorrelation correlation = fftPixels > 0 && height * width >= fftPixels ?
+            new CrossCorrelation(cropped, b, height, width) : null;
+        final double cc = (double) param.DEFAULT_JUDGMENT_CONFIDENCE * param.DEFAULT_JUDGMENT_CONFIDENCE;
+        final float priorConfidence = 0.01f;
+        final double w0 = c2w(priorConfidence, param);
+        final float maxConfidence = 1.0f - param.TRUTH_EPSILON;
+        float bestF = 0.5f;
+        float bestC = priorConfidence;
+        float bestExp = bestC * (bestF - 0.5f) + 0.5f;
+        for(int oj=1-this.width; oj<this.width; oj++) {
+            for(int oi=1-this.height; oi<this.height; oi++) {
+                double sa = 0, sb = 0, sab = 0;
+                if(correlation != null) {
+                    sa = correlation.sumA(oi, oj);
+                    sb = correlation.sumB(oi, oj);
+                    sab = correlation.sumProducts(oi, oj);
+                } else {
+                    final int i1 = Math.min(height, height - oi);
+                    final int j0 = Math.max(0, -oj);
+                    final int j1 = Math.min(width, width - oj);
+                    for(int i=Math.max(0, -oi); i<i1; i++) {
+                        final float[] rowA = cropped[i + oi];
+                        final float[] rowB = b[i];
+                        for(int j=j0; j<j1; j++) {
+                            final float x = rowA[j + oj];
+                            final float y = rowB[j];
+                            sa += x;
+                            sb += y;
+                            sab += x * y;
                         }
-                        int i2 = (int) (((double) i) * kh);
-                        int j2 = (int) (((double) j)  * kw);
-                        TruthValue t1 = new TruthValue(cropped[transi][transj], nar.narParameters.DEFAULT_JUDGMENT_CONFIDENCE, nar.narParameters);
-                        TruthValue t2 = new TruthValue(other.cropped[i2][j2], nar.narParameters.DEFAULT_JUDGMENT_CONFIDENCE, nar.narParameters);
-                        TruthValue t3 = comparison ? TruthFunctions.comparison(t1,t2, nar.narParameters) : TruthFunctions.abduction(t1,t2, nar.narParameters);
-                        sim = TruthFunctions.revision(sim, t3, nar.narParameters);                
                     }
                 }
-                if(sim.getExpectation() > bestShiftTruth.getExpectation()) {
-                    bestShiftTruth = sim;
+                final double w = w0 + cc * (comparison ? sa + sb - sab : sb);
+                final float f = (float) ((0.5 * w0 + cc * sab) / w);
+                final float c = Math.min((float) (w / (w + param.HORIZON)), maxConfidence);
+                final float exp = c * (f - 0.5f) + 0.5f;
+                if(exp > bestExp) {
+                    bestF = f;
+                    bestC = c;
+                    bestExp = exp;
                 }
             }
         }
-        return bestShiftTruth;
+        return new TruthValue(bestF, bestC, param);
+    }
+
+    /** @return the pixels scaled to the given size by nearest neighbour, the own pixels if the size matches */
+    private float[][] resampled(final int h, final int w) {
+        if(h == this.height && w == this.width) {
+            return cropped;
+        }
+        final double kh = ((double) this.height) / h;
+        final double kw = ((double) this.width) / w;
+        final float[][] r = new float[h][w];
+        for(int i=0; i<h; i++) {
+            final float[] row = cropped[(int) (i * kh)];
+            for(int j=0; j<w; j++) {
+                r[i][j] = row[(int) (j * kw)];
+            }
+        }
+        return r;
     }
 
     @Override
@@ -0,0 +1,378 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
+import org.opennars.io.ChannelReader;
+import org.opennars.io.ChannelWriter;
+import org.opennars.io.UninterruptibleFileChannel;
+import org.opennars.language.Term;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Second tier of the concept memory: concepts forgotten by the concept bag are appended
+ * to a file and restored with their tables and links when their term is conceptualized again
+ * <p>
+ * Each record is the length of the concept followed by the concept as written to a
+ * {@link MemorySnapshot}, with a codec of its own so that records decode independently.
+ * Only the positions of the records are kept in memory. Records which were restored or
+ * superseded are garbage, the file is compacted once they make up most of it.
+ * <p>
+ * Forgotten concepts are only queued when the concept bag reports them and written at the
+ * start of the following cycles, outside of the lock of the bag. A queued concept is restored
+ * without reading, beyond MAX_UNWRITTEN queued concepts the oldest are forgotten as without
+ * archive. Compaction copies the live records into a new file over several cycles too, the
+ * records copied and appended per cycle are limited to ARCHIVE_WRITE_KILOBYTES_PER_CYCLE,
+ * at least one of each is written per cycle.
+ * <p>
+ * At most ARCHIVE_READS_PER_CYCLE concepts are read per cycle. A term conceptualized
+ * beyond that gets a new concept, into which the beliefs, desires and preconditions of
+ * the archived one are merged in one of the following cycles. At most PENDING_PER_READ
+ * times as many merges wait, the archived concepts of further terms stay archived.
+ */
+public class ConceptArchive implements Closeable {
+
+    /** size from which the file is compacted when more than half of it is garbage */
+    static final long COMPACT_MIN_BYTES = 1024 * 1024;
+
+    /** merges which may wait per concept read in a cycle */
+    public static final int PENDING_PER_READ = 4;
+
+    /** concepts which may wait to be written */
+    public static final int MAX_UNWRITTEN = 4096;
+
+    private static class Entry {
+        final long position;
+        final int length;
+
+        Entry(final long position, final int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    private final Path path;
+    private final Memory memory;
+    private UninterruptibleFileChannel channel;
+    private final Map<Term, Entry> index = new HashMap<>();
+    private final Map<Term, Concept> unwritten = new LinkedHashMap<>();
+    private final Set<Term> pending = new LinkedHashSet<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final ChannelWriter writer = new ChannelWriter(bytes);
+    private long end = 0, garbage = 0;
+    private int reads = 0;
+    /* compaction in progress: the new file, the terms whose records still have to be copied and the copied records */
+    private UninterruptibleFileChannel target = null;
+    private final Deque<Term> toCopy = new ArrayDeque<>();
+    private final Map<Term, Entry> copied = new HashMap<>();
+    private long targetEnd = 0;
+    private long stored = 0, restored = 0, merged = 0;
+
+    /**
+     * Creates an empty archive, replacing any existing file
+     */
+    public ConceptArchive(final String path, final Memory memory) throws IOException {
+        this.path = Paths.get(path);
+        this.memory = memory;
+        this.channel = open(this.path);
+    }
+
+    private static UninterruptibleFileChannel open(final Path path) throws IOException {
+        return new UninterruptibleFileChannel(path, true);
+    }
+
+    /** queues a forgotten concept to be appended in the next cycle, superseding a previous record of its term */
+    public synchronized void store(final Concept c) {
+        if (unwritten.size() >= MAX_UNWRITTEN && !unwritten.containsKey(c.term)) {
+            final Iterator<Term> oldest = unwritten.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        unwritten.put(c.term, c);
+    }
+
+    /** appends queued concepts and continues compaction, within the bytes of a cycle */
+    private synchronized void write() {
+        final long budget = memory.narParameters.ARCHIVE_WRITE_KILOBYTES_PER_CYCLE * 1024L;
+        try {
+            long written = 0;
+            final Iterator<Concept> queued = unwritten.values().iterator();
+            while (queued.hasNext() && (written == 0 || written < budget)) {
+                written += append(queued.next());
+                queued.remove();
+            }
+            if (target == null && end >= COMPACT_MIN_BYTES && garbage > end / 2) {
+                startCompaction();
+            }
+            if (target != null) {
+                long copiedBytes = 0;
+                while (!toCopy.isEmpty() && (copiedBytes == 0 || copiedBytes < budget)) {
+                    copiedBytes += copy(toCopy.poll());
+                }
+                if (toCopy.isEmpty()) {
+                    finishCompaction();
+                }
+            }
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Unable to write concept archive " + path, ex);
+        }
+    }
+
+    /** @return the bytes written */
+    private long append(final Concept c) throws IOException {
+        final byte[] record;
+        try {
+            bytes.reset();
+            MemorySnapshot.writeConcept(writer, new MemorySnapshot.TaskIds(new TaskCodec(memory)), c);
+            writer.flush();
+            record = bytes.toByteArray();
+        } catch (final ConcurrentModificationException ex) {
+            return 0; //still being changed by an inference step, forgotten as without archive
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(4 + record.length);
+        buffer.putInt(record.length).put(record).flip();
+        channel.write(buffer, end);
+        final Entry previous = index.put(c.term, new Entry(end, record.length));
+        if (previous != null) {
+            garbage += 4 + previous.length;
+        }
+        end += buffer.limit();
+        stored++;
+        if (target != null) {
+            //the record copied before is superseded
+            copied.remove(c.term);
+            toCopy.add(c.term);
+        }
+        return buffer.limit();
+    }
+
+    /**
+     * Takes the archived concept of the term out of the archive
+     *
+     * @return the concept, or null if the term is not archived or the reads of this
+     *         cycle are used up, in which case its tables are merged later
+     */
+    public synchronized Concept restore(final Term term) {
+        final Concept queued = unwritten.remove(term);
+        if (queued != null) {
+            discard(term);
+            restored++;
+            return queued;
+        }
+        if (!index.containsKey(term)) {
+            return null;
+        }
+        if (reads >= memory.narParameters.ARCHIVE_READS_PER_CYCLE) {
+            if (pending.size() < PENDING_PER_READ * Math.max(1, memory.narParameters.ARCHIVE_READS_PER_CYCLE)) {
+                pending.add(term);
+            }
+            return null;
+        }
+        final Concept c = take(term);
+        restored++;
+        return c;
+    }
+
+    /** called at the start of each cycle, writes the queued concepts and merges deferred concepts with the reads of the new cycle */
+    public void cycle() {
+        write();
+        synchronized (this) {
+            reads = 0;
+        }
+        while (true) {
+            final Term term;
+            synchronized (this) {
+                if (pending.isEmpty() || reads >= memory.narParameters.ARCHIVE_READS_PER_CYCLE) {
+                    return;
+                }
+                final Iterator<Term> first = pending.iterator();
+                term = first.next();
+                first.remove();
+            }
+            final Concept live = memory.concept(term);
+            if (live == null) {
+                continue; //forgotten again meanwhile, stays archived
+            }
+            final Concept archived;
+            synchronized (this) {
+                if (!index.containsKey(term)) {
+                    continue;
+                }
+                archived = take(term);
+                merged++;
+            }
+            synchronized (live) {
+                merge(archived.beliefs, live.beliefs, memory.narParameters.CONCEPT_BELIEFS_MAX, false);
+                merge(archived.desires, live.desires, memory.narParameters.CONCEPT_GOALS_MAX, false);
+                merge(archived.executable_preconditions, live.executable_preconditions, memory.narParameters.CONCEPT_BELIEFS_MAX, true);
+            }
+        }
+    }
+
+    private static void merge(final List<Task> from, final List<Task> to, final int max, final boolean rankTruthExpectation) {
+        for (final Task t : from) {
+            Concept.addToTable(t, to, max, rankTruthExpectation);
+        }
+    }
+
+    /** drops the record of the term, superseded by a concept which was queued after it */
+    private void discard(final Term term) {
+        final Entry e = index.remove(term);
+        if (e != null) {
+            garbage += 4 + e.length;
+            copied.remove(term);
+        }
+    }
+
+    private Concept take(final Term term) {
+        final Entry e = index.remove(term);
+        garbage += 4 + e.length;
+        copied.remove(term);
+        reads++;
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocate(e.length);
+            channel.read(buffer, e.position + 4);
+            try (ChannelReader in = new ChannelReader(Channels.newChannel(new ByteArrayInputStream(buffer.array())), e.length + 16)) {
+                return MemorySnapshot.readConcept(in, new MemorySnapshot.TaskIds(new TaskCodec(memory)), memory);
+            }
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Unable to read concept archive " + path, ex);
+        }
+    }
+
+    /** starts rewriting the live records into a new file */
+    private void startCompaction() throws IOException {
+        target = open(compactionPath());
+        targetEnd = 0;
+        toCopy.addAll(index.keySet());
+    }
+
+    /** @return the bytes copied of the current record of the term into the new file */
+    private long copy(final Term term) throws IOException {
+        final Entry e = index.get(term);
+        if (e == null || copied.containsKey(term)) {
+            return 0; //restored meanwhile, or appended again and copied after that
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(4 + e.length);
+        channel.read(buffer, e.position);
+        buffer.flip();
+        target.write(buffer, targetEnd);
+        copied.put(term, new Entry(targetEnd, e.length));
+        targetEnd += 4 + e.length;
+        return 4 + e.length;
+    }
+
+    /** replaces the file by the new one, once all live records are copied */
+    private void finishCompaction() throws IOException {
+        channel.close();
+        target.close();
+        target = null;
+        Files.move(compactionPath(), path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = new UninterruptibleFileChannel(path, false);
+        index.clear();
+        index.putAll(copied);
+        copied.clear();
+        end = targetEnd;
+        garbage = 0;
+    }
+
+    private void abortCompaction() throws IOException {
+        if (target != null) {
+            target.close();
+            target = null;
+            toCopy.clear();
+            copied.clear();
+            Files.deleteIfExists(compactionPath());
+        }
+    }
+
+    private Path compactionPath() {
+        return Paths.get(path + ".tmp");
+    }
+
+    /** forgets all archived concepts, called on memory reset */
+    public synchronized void clear() throws IOException {
+        abortCompaction();
+        index.clear();
+        unwritten.clear();
+        pending.clear();
+        channel.truncate(0);
+        end = garbage = 0;
+        reads = 0;
+    }
+
+    /** amount of archived concepts */
+    public synchronized int size() {
+        int size = index.size();
+        for (final Term term : unwritten.keySet()) {
+            if (!index.containsKey(term)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public synchronized boolean contains(final Term term) {
+        return unwritten.containsKey(term) || index.containsKey(term);
+    }
+
+    /** bytes of the archive file */
+    public synchronized long getFileSize() {
+        return end;
+    }
+
+    public synchronized long getStored() {
+        return stored;
+    }
+
+    /** concepts restored in place of a new concept */
+    public synchronized long getRestored() {
+        return restored;
+    }
+
+    /** archived concepts whose tables were merged into a new concept after the reads of a cycle were used up */
+    public synchronized long getMerged() {
+        return merged;
+    }
+
+    /** deletes the file, the archive only lives as long as the memory it extends */
+    @Override
+    public synchronized void close() throws IOException {
+        abortCompaction();
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Concept;
+import org.opennars.language.Term;
+import org.opennars.main.Parameters;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Concept bag which, besides its capacity in items, keeps the estimated retained
+ * bytes of its concepts within a budget
+ * <p>
+ * A concept is estimated whenever it is put in, so the sum follows the content of the
+ * concepts as they are fired and put back. When the budget is exceeded, concepts are
+ * evicted from the lowest levels, among which the one with the least priority per byte
+ * goes first. The concept being put in is not evicted for its own sake, so a single
+ * concept larger than the budget stays.
+ * <p>
+ * Evictions are reported to the memory with {@link Memory#conceptRemoved}, while the
+ * concept returned from putting in is, as in other bags, only the one displaced because
+ * the capacity was reached.
+ */
+public class ConceptBag extends LevelBag<Concept,Term> {
+
+    /** concepts of the lowest non-empty levels compared per eviction */
+    static final int EVICTION_CANDIDATES = 8;
+
+    private final long byteBudget;
+    private long bytes = 0;
+    private Memory memory = null;
+
+    public ConceptBag(final int levels, final int capacity, final long byteBudget, final Parameters narParameters) {
+        super(levels, capacity, narParameters);
+        this.byteBudget = byteBudget;
+    }
+
+    /** estimated bytes of the concepts in the bag */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getByteBudget() {
+        return byteBudget;
+    }
+
+    /** called by the memory the bag holds the concepts of, which evictions are reported to */
+    void attach(final Memory memory) {
+        this.memory = memory;
+    }
+
+    @Override
+    public Concept addItem(final Concept c) {
+        try {
+            c.footprint = MemoryFootprint.estimateUnlocked(c).total();
+        } catch (final ConcurrentModificationException | NoSuchElementException ex) {
+            //changed by another thread while estimated, keep the previous estimate
+        }
+        final Concept displaced = super.addItem(c);
+        if (displaced == c) {
+            return c;
+        }
+        bytes += c.footprint;
+        if (displaced != null) {
+            bytes -= displaced.footprint;
+        }
+        while (bytes > byteBudget) {
+            final Concept victim = selectVictim(c);
+            if (victim == null) {
+                break;
+            }
+            take(victim.name());
+            if (memory != null) {
+                memory.conceptRemoved(victim);
+            }
+        }
+        return displaced;
+    }
+
+    /** the concept with the least priority per byte among the first ones of the lowest levels, except the inserted one */
+    private Concept selectVictim(final Concept inserted) {
+        Concept victim = null;
+        float victimScore = Float.MAX_VALUE;
+        int candidates = 0;
+        for (int l = 0; l < levels && candidates < EVICTION_CANDIDATES; l++) {
+            if (levelEmpty[l]) {
+                continue;
+            }
+            for (final Concept c : level[l]) {
+                if (c == inserted) {
+                    continue;
+                }
+                final float score = c.getPriority() / Math.max(1, c.footprint);
+                if (score < victimScore) {
+                    victim = c;
+                    victimScore = score;
+                }
+                if (++candidates == EVICTION_CANDIDATES) {
+                    break;
+                }
+            }
+        }
+        return victim;
+    }
+
+    @Override
+    public Concept take(final Term name) {
+        final Concept c = super.take(name);
+        if (c != null) {
+            bytes -= c.footprint;
+        }
+        return c;
+    }
+
+    @Override
+    public Concept takeNext() {
+        final Concept c = super.takeNext();
+        if (c != null) {
+            bytes -= c.footprint;
+        }
+        return c;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        bytes = 0;
+    }
+}
@@ -15,8 +15,8 @@
 package org.opennars.storage;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A pseudo-random number generator, used in Bag.
@@ -28,14 +28,10 @@ public final class Distributor {
     /** Capacity of the array */
     public final int capacity;
 
-    private final static Map<Integer,Distributor> distributors = new HashMap(8);
+    /** distributors don't change once built, so all memories share them */
+    private final static Map<Integer,Distributor> distributors = new ConcurrentHashMap<>(8);
     public static Distributor get(final int range) {
-        Distributor d = distributors.get(range);
-        if (d==null) {
-            d = new Distributor(range);
-            distributors.put(range, d);
-        }
-        return d;
+        return distributors.computeIfAbsent(range, Distributor::new);
     }
     
     /**
@@ -0,0 +1,111 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Item;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Immutable empty bag shared by all owners which did not receive an item yet,
+ * they replace it with a bag of their own before the first insertion
+ */
+public final class EmptyBag<E extends Item<K>,K> extends Bag<E,K> implements Serializable {
+
+    private static final EmptyBag INSTANCE = new EmptyBag();
+
+    private EmptyBag() {
+    }
+
+    public static <E extends Item<K>,K> Bag<E,K> instance() {
+        return INSTANCE;
+    }
+
+    /** whether the bag is the shared empty one */
+    public static boolean is(final Bag<?,?> bag) {
+        return bag == INSTANCE;
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public E get(final K key) {
+        return null;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public int getCapacity() {
+        return 0;
+    }
+
+    @Override
+    public float getMass() {
+        return 0;
+    }
+
+    @Override
+    public E takeNext() {
+        return null;
+    }
+
+    @Override
+    public E peekNext() {
+        return null;
+    }
+
+    @Override
+    protected E addItem(final E newItem) {
+        throw new UnsupportedOperationException("The shared empty bag can not hold items");
+    }
+
+    @Override
+    public E take(final K key) {
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    public Iterable<E> values() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public float getAveragePriority() {
+        return 0.01f;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return Collections.emptyIterator();
+    }
+}
@@ -42,10 +42,12 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
     final short[] DISTRIBUTOR;
 
     /**
-     * mapping from key to item
+     * mapping from key to item, the shared empty map until the first item
+     * arrives, then a map which grows with the content instead of being
+     * presized to the capacity
      */
     //public final Set<E> nameTable;
-    public final Map<K, E> nameTable;
+    private Map<K, E> nameTable = Collections.emptyMap();
 
     /**
      * array of lists of items, for items on different level
@@ -85,7 +87,6 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         this.fireCompleteLevelThreshold = thresholdLevel;
         //THRESHOLD = levels + 1; //fair/flat takeOut policy
         this.capacity = capacity;
-        nameTable = new HashMap<>(capacity);
         level = new Level[this.levels];
         levelEmpty = new boolean[this.levels];
         Arrays.fill(levelEmpty, true);
@@ -166,13 +167,13 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
     }
     
     @Override
-    public final void clear() {
+    public void clear() {
         for (int i = 0; i < levels; i++) {
             if (level[i] != null) {
                 level[i].clear();
             }
         }
-        nameTable.clear();
+        nameTable = Collections.emptyMap();
         currentLevel = levels - 1;
         levelIndex = capacity % levels; // so that different bags start at different point
         mass = 0;
@@ -206,6 +207,11 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         return t;
     }
     
+    /** mapping from key to item */
+    public Map<K, E> getNameTable() {
+        return nameTable;
+    }
+
     @Override
     public Set<K> keySet() {
         return nameTable.keySet();
@@ -369,6 +375,9 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         }
         ensureLevelExists(inLevel);
         level[inLevel].add(newItem);        // FIFO
+        if (nameTable == Collections.EMPTY_MAP) {
+            nameTable = new HashMap<>();
+        }
         nameTable.put(newItem.name(), newItem);        
         addMass(newItem);
         return oldItem;
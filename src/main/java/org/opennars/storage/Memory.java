@@ -36,13 +36,16 @@ import org.opennars.language.Interval;
 import org.opennars.language.Tense;
 import org.opennars.language.Term;
 import org.opennars.main.Nar;
+import org.opennars.main.Nar.Lock;
 import org.opennars.main.Nar.PortableDouble;
 import org.opennars.main.Nar.RuntimeParameters;
 import org.opennars.main.Parameters;
 import org.opennars.operator.Operation;
 import org.opennars.operator.Operator;
+import org.opennars.operator.OperatorExecutor;
 import org.opennars.plugin.mental.Emotions;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import org.opennars.entity.Stamp.BaseEntry;
@@ -75,7 +78,12 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     public boolean allowExecution = true;
 
     public static final long randomSeed = 1;
-    public static final Random randomNumber = new Random(randomSeed);
+    /* Random source of this memory, reseeded on reset */
+    public final RandomSource randomNumber = new RandomSource(randomSeed);
+    /* Random source of the memory working on the current thread */
+    private static final ThreadLocal<Random> currentRandom = new ThreadLocal<>();
+    /* Random source for code running outside of any memory */
+    private static final Random sharedRandom = new Random(randomSeed);
     
     //todo make sense of this class and de-obfuscate
     public final Bag<Concept,Term> concepts;
@@ -84,8 +92,8 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     /* InnateOperator registry. Containing all registered operators of the system */
     public final Map<CharSequence, Operator> operators;
     
-    /* a mutex for novel and new taskks*/
-    private final Boolean tasksMutex = Boolean.TRUE;
+    /* a mutex for novel and new taskks, held by a checkpoint so that each input task is either in its snapshot or in the journal after it*/
+    public final Lock tasksMutex = new Lock();
     
     /* New tasks with novel composed terms, for delayed and selective processing*/
     public final Bag<Task<Term>,Sentence<Term>> novelTasks;
@@ -99,11 +107,40 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     
     /* System parameters that can be changed at runtime */
     public final RuntimeParameters param;
+
+    /* Journal of the tasks entering from outside, null if journaling is off */
+    public transient TaskJournal journal = null;
+
+    /* Second tier of forgotten concepts, null if archiving is off */
+    public transient ConceptArchive archive = null;
+
+    /* Decides which derived tasks enter this memory, null to keep all; a federation passes the others to their shard */
+    public transient java.util.function.Predicate<Task> derivationFilter = null;
+
+    /* Executor of the async operators, created on first use */
+    private transient OperatorExecutor operatorExecutor = null;
     
     //Boolean localInferenceMutex = false;
     
     public static void resetStatic() {
-        randomNumber.setSeed(randomSeed);    
+        sharedRandom.setSeed(randomSeed);    
+    }
+
+    /**
+     * Random source for code without a reference to its memory, like unification
+     *
+     * @return the random source of the memory cycling or processing input on this thread, else a shared one
+     */
+    public static Random random() {
+        final Random r = currentRandom.get();
+        return r != null ? r : sharedRandom;
+    }
+
+    /** makes random() return the random source of this memory on the current thread, returns the previous one */
+    private Random bindRandom() {
+        final Random previous = currentRandom.get();
+        currentRandom.set(randomNumber);
+        return previous;
     }
     
     /* ---------- Constructor ---------- */
@@ -117,6 +154,9 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         this.narParameters = narParameters;
         this.event = new EventEmitter();
         this.concepts = concepts;
+        if (concepts instanceof ConceptBag) {
+            ((ConceptBag) concepts).attach(this);
+        }
         this.novelTasks = novelTasks;                
         this.newTasks = new ArrayDeque<>();
         this.recent_operations = recent_operations;
@@ -140,7 +180,17 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         }
         emotion.resetEmotions();
         this.lastDecision = null;
-        resetStatic();
+        if (operatorExecutor != null) {
+            operatorExecutor.cancel();
+        }
+        randomNumber.setSeed(randomSeed);
+        if (archive != null) {
+            try {
+                archive.clear();
+            } catch (final IOException ex) {
+                throw new IllegalStateException("Unable to clear the concept archive", ex);
+            }
+        }
         event.emit(ResetEnd.class);
     }
 
@@ -164,11 +214,11 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      * 
      *   Existing concept: apply tasklink activation (remove from bag, adjust budget, reinsert)
      *   New concept: set initial activation, insert
-     *   Subconcept: extract from cache, apply activation, insert
+     *   Archived concept: restore from the concept archive, apply activation, insert
      * 
      * If failed to insert as a result of null bag, returns null
      *
-     * A displaced Concept resulting from insert is forgotten (but may be stored in optional  subconcept memory
+     * A displaced Concept resulting from insert is forgotten (and stored in the concept archive if there is one)
      * 
      * @param term indicating the concept
      * @return an existing Concept, or a new one, or null 
@@ -186,7 +236,12 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
             concept = concepts.take(term);
 
             //see if concept is active
-            if (concept == null) {
+            if (concept == null && archive != null && (concept = archive.restore(term)) != null) {
+                //restore the forgotten concept, with the applied budget
+                BudgetFunctions.activate(concept.budget, budget, BudgetFunctions.Activating.TaskLink);
+                emit(Events.ConceptNew.class, concept);
+            }
+            else if (concept == null) {
                 //create new concept, with the applied budget
                 concept = new Concept(budget, term, this);
                 //if (memory.logic!=null)
@@ -274,7 +329,14 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
             }
 
             if (task.budget.aboveThreshold()) {
-                addNewTask(task, "Perceived");
+                synchronized (tasksMutex) {
+                    if (journal != null) {
+                        journal.input(time.time(), task);
+                    }
+                    newTasks.add(task);
+                }
+                emit(Events.TaskAdd.class, task, "Perceived");
+                output(task);
             } else {
                 removeTask(task, "Neglected");
             }
@@ -285,6 +347,42 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         inputTask(time, t, true);
     }
 
+    /**
+     * Input of a batch of tasks, which enter the new tasks at once
+     *
+     * @param tasks The addInput tasks, in the order they arrived
+     */
+    public void inputTasks(final Timable time, final List<Task> tasks, final boolean emitIn) {
+        final List<Task> accepted = new ArrayList<>(tasks.size());
+        for (final Task task : tasks) {
+            final Stamp s = task.sentence.stamp;
+            if (s.getCreationTime()==-1)
+                s.setCreationTime(time.time(), narParameters.DURATION);
+
+            if(emitIn) {
+                emit(IN.class, task);
+            }
+
+            if (task.budget.aboveThreshold()) {
+                accepted.add(task);
+            } else {
+                removeTask(task, "Neglected");
+            }
+        }
+        synchronized (tasksMutex) {
+            if (journal != null) {
+                for (final Task task : accepted) {
+                    journal.input(time.time(), task);
+                }
+            }
+            newTasks.addAll(accepted);
+        }
+        for (final Task task : accepted) {
+            emit(Events.TaskAdd.class, task, "Perceived");
+            output(task);
+        }
+    }
+
     public void removeTask(final Task task, final String reason) {        
         emit(TaskRemove.class, task, reason);
         task.end();        
@@ -312,7 +410,22 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         final Task newTask = new Task(sentence, budgetForNewTask, Task.EnumType.INPUT);
 
         newTask.setElemOfSequenceBuffer(true);
-        addNewTask(newTask, "Executed");
+        synchronized (tasksMutex) {
+            if (journal != null) {
+                journal.executed(time.time(), newTask);
+            }
+            newTasks.add(newTask);
+        }
+        emit(Events.TaskAdd.class, newTask, "Executed");
+        output(newTask);
+    }
+
+    /** @return the executor of the async operators */
+    public synchronized OperatorExecutor operatorExecutor() {
+        if (operatorExecutor == null) {
+            operatorExecutor = new OperatorExecutor(this);
+        }
+        return operatorExecutor;
     }
 
     public void output(final Task t) {
@@ -335,23 +448,40 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     
     public void conceptRemoved(final Concept c) {
         emit(Events.ConceptForget.class, c);
+        if (archive != null) {
+            archive.store(c);
+        }
     }
     
     public void cycle(final Nar inputs) {
-    
-        event.emit(Events.CycleStart.class);
-        
-        this.processNewTasks(inputs.narParameters, inputs);
-    //if(noResult()) //newTasks empty
-        this.processNovelTask(inputs.narParameters, inputs);
-    //if(noResult()) //newTasks empty
-        GeneralInferenceControl.selectConceptForInference(this, inputs.narParameters, inputs);
-        
-        event.emit(Events.CycleEnd.class);
-        event.synch();
+        final Random previous = bindRandom();
+        try {
+            event.emit(Events.CycleStart.class);
+
+            if (archive != null) {
+                archive.cycle();
+            }
+
+            if (operatorExecutor != null) {
+                operatorExecutor.deliver(inputs);
+            }
+
+            this.processNewTasks(inputs.narParameters, inputs);
+        //if(noResult()) //newTasks empty
+            this.processNovelTask(inputs.narParameters, inputs);
+        //if(noResult()) //newTasks empty
+            GeneralInferenceControl.selectConceptForInference(this, inputs.narParameters, inputs);
+
+            event.emit(Events.CycleEnd.class);
+            event.synch();
+        } finally {
+            currentRandom.set(previous);
+        }
     }
     
     public void localInference(final Task task, Parameters narParameters, final Timable time) {
+        final Random previous = bindRandom();
+        try {
         //synchronized (localInferenceMutex) {
             final DerivationContext cont = new DerivationContext(this, narParameters, time);
             cont.setCurrentTask(task);
@@ -371,6 +501,9 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
             //memory.logic.TASK_IMMEDIATE_PROCESS.commit();
             emit(Events.TaskImmediateProcess.class, task, cont);
         //}
+        } finally {
+            currentRandom.set(previous);
+        }
     }
     
     /**
@@ -433,10 +566,18 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      }
 
     private long currentStampSerial = 0;
-    public BaseEntry newStampSerial() {
+    public synchronized BaseEntry newStampSerial() {
         return new BaseEntry(this.narId, currentStampSerial++);
     }   
 
+    public synchronized long getCurrentStampSerial() {
+        return currentStampSerial;
+    }
+
+    public synchronized void setCurrentStampSerial(final long serial) {
+        this.currentStampSerial = serial;
+    }
+
     /** converts durations to cycles */
     public final float cycles(final PortableDouble durations) {
         return narParameters.DURATION * durations.floatValue();
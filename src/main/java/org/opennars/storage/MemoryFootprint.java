@@ -0,0 +1,287 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import org.opennars.control.DerivationContext;
+import org.opennars.entity.Concept;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.Task;
+import org.opennars.entity.TaskLink;
+import org.opennars.entity.TermLink;
+import org.opennars.io.Symbols.NativeOperator;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events;
+import org.opennars.language.CompoundTerm;
+import org.opennars.language.Term;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Estimated heap footprint of the concepts of a memory
+ * <p>
+ * The sizes are those of a 64 bit JVM with compressed references. Objects which are
+ * shared between concepts are only counted where they are owned: tasks by the tables
+ * of the concept holding them, not by the task links pointing to them, and atomic
+ * terms by their own concept, not by the compounds containing them.
+ */
+public class MemoryFootprint {
+
+    static final int HEADER = 12, REFERENCE = 4, ARRAY_HEADER = 16;
+    /** hash map node of the name index and linked set entry of the level */
+    static final int BAG_ENTRY = 32 + 40 + 2 * REFERENCE;
+    static final int BUDGET = 40, TRUTH = 32, TASK = 32, SENTENCE = 40, STAMP = 56, BASE_ENTRY = 32;
+    static final int TASK_LINK = 40, TERM_LINK = 32, RECORDING = 24, DEQUE = 24;
+    static final int ATOM = 32, COMPOUND = 64, STRING = 24;
+    static final int CONCEPT = 104, ARRAY_LIST = 24, HASH_MAP = 48, LEVEL_BAG = 56;
+    /** linked hash set of a level with its backing map */
+    static final int LEVEL = 16 + 56;
+    /** tables of a concept: beliefs, desires, questions, quests, preconditions and recent intervals */
+    static final int TABLES = 6;
+
+    /** estimated bytes, broken down by what holds them */
+    public static class Usage {
+        /** the concept with its link bags and tables, without their content */
+        public long structure;
+        public long terms, taskLinks, termLinks, tables, stamps;
+        public int concepts;
+
+        public long total() {
+            return structure + terms + taskLinks + termLinks + tables + stamps;
+        }
+
+        void add(final Usage u) {
+            structure += u.structure;
+            terms += u.terms;
+            taskLinks += u.taskLinks;
+            termLinks += u.termLinks;
+            tables += u.tables;
+            stamps += u.stamps;
+            concepts += u.concepts;
+        }
+
+        @Override
+        public String toString() {
+            return "concepts=" + concepts + " total=" + total() + " structure=" + structure + " terms=" + terms + " taskLinks=" + taskLinks
+                + " termLinks=" + termLinks + " tables=" + tables + " stamps=" + stamps;
+        }
+    }
+
+    public final Usage total = new Usage();
+    public final Map<NativeOperator, Usage> byOperator = new EnumMap<>(NativeOperator.class);
+    public final SortedMap<Integer, Usage> byComplexity = new TreeMap<>();
+    /** per concept, in the order of the concept bag */
+    public final Map<Term, Usage> byConcept = new LinkedHashMap<>();
+
+    /** walks all concepts of the memory */
+    public static MemoryFootprint of(final Memory memory) {
+        final MemoryFootprint f = new MemoryFootprint();
+        for (final Concept c : concepts(memory)) {
+            f.add(c, estimate(c));
+        }
+        return f;
+    }
+
+    /** copied so that no concept is locked while the bag is */
+    static List<Concept> concepts(final Memory memory) {
+        synchronized (memory.concepts) {
+            final List<Concept> l = new ArrayList<>(memory.concepts.size());
+            for (final Concept c : memory.concepts) {
+                l.add(c);
+            }
+            return l;
+        }
+    }
+
+    void add(final Concept c, final Usage u) {
+        byConcept.put(c.term, u);
+        total.add(u);
+        byOperator.computeIfAbsent(c.term.operator(), k -> new Usage()).add(u);
+        byComplexity.computeIfAbsent((int) c.term.getComplexity(), k -> new Usage()).add(u);
+    }
+
+    /** the n concepts with the largest estimate, largest first */
+    public List<Map.Entry<Term, Usage>> largest(final int n) {
+        final List<Map.Entry<Term, Usage>> l = new ArrayList<>(byConcept.entrySet());
+        l.sort((a, b) -> Long.compare(b.getValue().total(), a.getValue().total()));
+        return l.subList(0, Math.min(n, l.size()));
+    }
+
+    public static Usage estimate(final Concept c) {
+        synchronized (c) {
+            return estimateUnlocked(c);
+        }
+    }
+
+    /** without the lock of the concept, for callers which hold the lock of the concept bag */
+    static Usage estimateUnlocked(final Concept c) {
+        final Usage u = new Usage();
+        u.concepts = 1;
+        u.structure = CONCEPT + BUDGET + bag(c.taskLinks) + bag(c.termLinks) + bag(c.seq_before) + TABLES * ARRAY_LIST;
+        u.terms = term(c.term, true);
+        if (c.termLinkTemplates != null) {
+            u.termLinks += array(c.termLinkTemplates.size()) + c.termLinkTemplates.size() * TERM_LINK;
+        }
+        for (final TaskLink t : c.taskLinks) {
+            u.taskLinks += BAG_ENTRY + TASK_LINK + BUDGET + DEQUE + array(t.records.size() + 1)
+                + t.records.size() * RECORDING;
+        }
+        for (final TermLink t : c.termLinks) {
+            u.termLinks += BAG_ENTRY + TERM_LINK + BUDGET;
+        }
+        for (final List<Task> table : new List[] {c.beliefs, c.desires, c.questions, c.quests, c.executable_preconditions}) {
+            u.structure += list(table.size());
+            for (final Task t : table) {
+                u.tables += REFERENCE + TASK + BUDGET + SENTENCE + (t.sentence.truth != null ? TRUTH : 0);
+                u.stamps += stamp(t.sentence.stamp);
+            }
+        }
+        u.structure += list(c.recent_intervals.size());
+        u.tables += c.recent_intervals.size() * 16;
+        return u;
+    }
+
+    /** a level bag with its levels and index, the shared empty bag is not counted */
+    static long bag(final Bag<?,?> b) {
+        if (!(b instanceof LevelBag)) {
+            return 0;
+        }
+        final LevelBag<?,?> l = (LevelBag<?,?>) b;
+        long bytes = LEVEL_BAG + array(l.levels) + align(ARRAY_HEADER + l.levels);
+        if (l.size() > 0) {
+            bytes += HASH_MAP + hashTable(l.size());
+        }
+        for (final LevelBag.Level level : l.level) {
+            if (level != null) {
+                bytes += LEVEL + hashTable(level.size());
+            }
+        }
+        return bytes;
+    }
+
+    /** backing array of an array list, shared while empty, grown to 10 by the first element */
+    static long list(final int size) {
+        return size == 0 ? 0 : array(Math.max(10, size));
+    }
+
+    /** table of a hash map or set holding the given amount of entries */
+    static long hashTable(final int size) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < size) {
+            capacity <<= 1;
+        }
+        return array(capacity);
+    }
+
+    static long stamp(final Stamp s) {
+        return STAMP + array(s.evidentialBase.length) + s.evidentialBase.length * BASE_ENTRY;
+    }
+
+    static long term(final Term t, final boolean owner) {
+        if (!(t instanceof CompoundTerm)) {
+            return owner ? ATOM + string(t.name()) : 0;
+        }
+        final CompoundTerm c = (CompoundTerm) t;
+        long bytes = COMPOUND + array(c.term.length) + string(c.name());
+        for (final Term component : c.term) {
+            bytes += term(component, false);
+        }
+        return bytes;
+    }
+
+    static long string(final CharSequence s) {
+        return STRING + align(ARRAY_HEADER + 2L * s.length());
+    }
+
+    static long array(final int references) {
+        return align(ARRAY_HEADER + (long) REFERENCE * references);
+    }
+
+    static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Keeps a running total of the estimate while the reasoner runs
+     * <p>
+     * Concepts are estimated when they are created and again whenever they fire,
+     * so the total follows the content with a lag of one firing per concept. A
+     * {@link ConceptBag} keeps the total itself, which is then used instead.
+     */
+    public static class Tracker implements EventObserver {
+        private final Memory memory;
+        private long total = 0;
+
+        public Tracker(final Memory memory) {
+            this.memory = memory;
+            if (memory.concepts instanceof ConceptBag) {
+                return;
+            }
+            for (final Concept c : concepts(memory)) {
+                update(c);
+            }
+            memory.event.set(this, true, Events.ConceptNew.class, Events.ConceptFire.class,
+                Events.ConceptForget.class, Events.ResetEnd.class);
+        }
+
+        public void close() {
+            memory.event.set(this, false, Events.ConceptNew.class, Events.ConceptFire.class,
+                Events.ConceptForget.class, Events.ResetEnd.class);
+        }
+
+        /** estimated bytes of all concepts in memory */
+        public synchronized long getTotal() {
+            if (memory.concepts instanceof ConceptBag) {
+                return ((ConceptBag) memory.concepts).getBytes();
+            }
+            return total;
+        }
+
+        private void update(final Concept c) {
+            final long bytes = estimate(c).total();
+            synchronized (this) {
+                total += bytes - c.footprint;
+                c.footprint = bytes;
+            }
+        }
+
+        @Override
+        public void event(final Class event, final Object[] args) {
+            if (event == Events.ConceptNew.class) {
+                update((Concept) args[0]);
+            } else if (event == Events.ConceptFire.class) {
+                final Concept c = ((DerivationContext) args[0]).getCurrentConcept();
+                if (c != null) {
+                    update(c);
+                }
+            } else if (event == Events.ConceptForget.class) {
+                final Concept c = (Concept) args[0];
+                synchronized (this) {
+                    total -= c.footprint;
+                    c.footprint = 0;
+                }
+            } else if (event == Events.ResetEnd.class) {
+                synchronized (this) {
+                    total = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.*;
+import org.opennars.io.ChannelReader;
+import org.opennars.io.ChannelWriter;
+import org.opennars.language.Term;
+import org.opennars.main.Parameters;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned binary snapshot of the concepts of a memory
+ *
+ * Layout: header (magic, version, config path, nar id, clock, stamp serial), followed by the
+ * parameters (the values of all Parameters fields and the runtime parameters), the emotion and
+ * the state of the random source, the concepts with their budget, belief/desire/question/quest/precondition
+ * tables, term links and task links, and finally the new, novel, sequence and recent operation tasks.
+ * Terms and tasks are encoded with a {@link TaskCodec}, so each distinct term is written only once,
+ * and each task is written once and then referred to, so task links share their task with the tables.
+ * <p>
+ * Not kept are the state of plugins and operators, the anticipations and the last decision.
+ */
+public class MemorySnapshot {
+
+    public static final int MAGIC = 0x4E415253; // "NARS"
+    public static final int VERSION = 2;
+
+    /** Tasks written so far, a task written again is only referred to by its number */
+    static class TaskIds {
+        final TaskCodec codec;
+        private final Map<Task, Integer> written = new IdentityHashMap<>();
+        private final List<Task> read = new ArrayList<>();
+
+        TaskIds(final TaskCodec codec) {
+            this.codec = codec;
+        }
+
+        void write(final ChannelWriter out, final Task task) throws IOException {
+            final Integer id = written.get(task);
+            if (id != null) {
+                out.writeVarInt(id + 1);
+                return;
+            }
+            out.writeVarInt(0);
+            written.put(task, written.size());
+            codec.writeTask(out, task);
+        }
+
+        Task read(final ChannelReader in) throws IOException {
+            final int ref = in.readVarInt();
+            if (ref > 0) {
+                if (ref > read.size()) {
+                    throw new IOException("Invalid task reference: " + ref);
+                }
+                return read.get(ref - 1);
+            }
+            final Task task = codec.readTask(in);
+            read.add(task);
+            return task;
+        }
+    }
+
+    /** Snapshot header, read before the reasoner to restore into is constructed */
+    public static class Header {
+        public final String configFilePath;
+        public final long narId;
+        public final long time;
+        public final long stampSerial;
+
+        public Header(final String configFilePath, final long narId, final long time, final long stampSerial) {
+            this.configFilePath = configFilePath;
+            this.narId = narId;
+            this.time = time;
+            this.stampSerial = stampSerial;
+        }
+    }
+
+    public static void write(final ChannelWriter out, final Memory memory, final long time, final String configFilePath) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeString(configFilePath);
+        out.writeSignedVarLong(memory.narId);
+        out.writeVarLong(time);
+        out.writeVarLong(memory.getCurrentStampSerial());
+        writeParameters(out, memory);
+        out.writeFloat(memory.emotion.happy());
+        out.writeFloat(memory.emotion.busy());
+        out.writeString(String.valueOf(memory.emotion.lasthappy));
+        out.writeString(String.valueOf(memory.emotion.lastbusy));
+        out.writeSignedVarLong(memory.emotion.last_happy_time);
+        out.writeSignedVarLong(memory.emotion.last_busy_time);
+        out.writeVarLong(memory.randomNumber.getState());
+
+        final TaskIds tasks = new TaskIds(new TaskCodec(memory));
+        synchronized (memory.concepts) {
+            out.writeVarInt(memory.concepts.size());
+            for (final Concept c : memory.concepts) {
+                writeConcept(out, tasks, c);
+            }
+        }
+        synchronized (memory.tasksMutex) {
+            out.writeVarInt(memory.newTasks.size());
+            for (final Task t : memory.newTasks) {
+                tasks.write(out, t);
+            }
+            writeBag(out, tasks, memory.novelTasks);
+        }
+        synchronized (memory.seq_current) {
+            writeBag(out, tasks, memory.seq_current);
+        }
+        synchronized (memory.recent_operations) {
+            writeBag(out, tasks, memory.recent_operations);
+        }
+        out.flush();
+    }
+
+    private static void writeBag(final ChannelWriter out, final TaskIds tasks, final Iterable<Task<Term>> bag) throws IOException {
+        final List<Task> items = new ArrayList<>();
+        for (final Task t : bag) {
+            items.add(t);
+        }
+        out.writeVarInt(items.size());
+        for (final Task t : items) {
+            tasks.write(out, t);
+        }
+    }
+
+    private static void readBag(final ChannelReader in, final TaskIds tasks, final Bag<Task<Term>, Sentence<Term>> bag) throws IOException {
+        final int size = in.readVarInt();
+        for (int i = 0; i < size; i++) {
+            bag.putIn(tasks.read(in));
+        }
+    }
+
+    /** the values of the Parameters fields by name, and the runtime parameters */
+    private static void writeParameters(final ChannelWriter out, final Memory memory) throws IOException {
+        final List<Field> fields = new ArrayList<>();
+        for (final Field f : Parameters.class.getFields()) {
+            if (!Modifier.isStatic(f.getModifiers()) && !Modifier.isFinal(f.getModifiers())) {
+                fields.add(f);
+            }
+        }
+        out.writeVarInt(fields.size());
+        try {
+            for (final Field f : fields) {
+                out.writeString(f.getName());
+                out.writeString(String.valueOf(f.get(memory.narParameters)));
+            }
+        } catch (final IllegalAccessException ex) {
+            throw new IllegalStateException("Unable to read parameters", ex);
+        }
+        out.writeVarInt(memory.param.threadsAmount.get());
+        out.writeVarInt(memory.param.noiseLevel.get());
+        out.writeString(String.valueOf(memory.param.conceptForgetDurations.get()));
+        out.writeString(String.valueOf(memory.param.termLinkForgetDurations.get()));
+        out.writeString(String.valueOf(memory.param.taskLinkForgetDurations.get()));
+        out.writeString(String.valueOf(memory.param.eventForgetDurations.get()));
+        out.writeString(String.valueOf(memory.param.projectionDecay.get()));
+    }
+
+    /** restores the parameters, values of fields which no longer exist are skipped */
+    private static void readParameters(final ChannelReader in, final Memory memory) throws IOException {
+        final int count = in.readVarInt();
+        try {
+            for (int i = 0; i < count; i++) {
+                final String name = in.readString();
+                final String value = in.readString();
+                final Field f;
+                try {
+                    f = Parameters.class.getField(name);
+                } catch (final NoSuchFieldException ex) {
+                    continue;
+                }
+                if (f.getType() == int.class) {
+                    f.set(memory.narParameters, Integer.parseInt(value));
+                } else if (f.getType() == float.class) {
+                    f.set(memory.narParameters, Float.parseFloat(value));
+                } else if (f.getType() == double.class) {
+                    f.set(memory.narParameters, Double.parseDouble(value));
+                } else if (f.getType() == boolean.class) {
+                    f.set(memory.narParameters, Boolean.parseBoolean(value));
+                }
+            }
+        } catch (final IllegalAccessException | NumberFormatException ex) {
+            throw new IOException("Invalid parameters in snapshot", ex);
+        }
+        memory.param.threadsAmount.set(in.readVarInt());
+        memory.param.noiseLevel.set(in.readVarInt());
+        memory.param.conceptForgetDurations.set(readDouble(in));
+        memory.param.termLinkForgetDurations.set(readDouble(in));
+        memory.param.taskLinkForgetDurations.set(readDouble(in));
+        memory.param.eventForgetDurations.set(readDouble(in));
+        memory.param.projectionDecay.set(readDouble(in));
+    }
+
+    private static double readDouble(final ChannelReader in) throws IOException {
+        final String value = in.readString();
+        try {
+            return Double.parseDouble(value);
+        } catch (final NumberFormatException ex) {
+            throw new IOException("Invalid number in snapshot: " + value, ex);
+        }
+    }
+
+    public static Header readHeader(final ChannelReader in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a memory snapshot");
+        }
+        final int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        final String configFilePath = in.readString();
+        final long narId = in.readSignedVarLong();
+        final long time = in.readVarLong();
+        final long stampSerial = in.readVarLong();
+        return new Header(configFilePath, narId, time, stampSerial);
+    }
+
+    /**
+     * Restores the parameters, concepts and pending tasks following the header into the memory, which is expected to be empty
+     */
+    public static void read(final ChannelReader in, final Memory memory, final Header header) throws IOException {
+        memory.narId = header.narId;
+        memory.setCurrentStampSerial(header.stampSerial);
+        readParameters(in, memory);
+        final float happy = in.readFloat();
+        memory.emotion.set(happy, in.readFloat());
+        memory.emotion.lasthappy = readDouble(in);
+        memory.emotion.lastbusy = readDouble(in);
+        memory.emotion.last_happy_time = in.readSignedVarLong();
+        memory.emotion.last_busy_time = in.readSignedVarLong();
+        memory.randomNumber.setState(in.readVarLong());
+
+        final TaskIds tasks = new TaskIds(new TaskCodec(memory));
+        final int count = in.readVarInt();
+        synchronized (memory.concepts) {
+            for (int i = 0; i < count; i++) {
+                memory.concepts.putIn(readConcept(in, tasks, memory));
+            }
+        }
+        synchronized (memory.tasksMutex) {
+            final int newTasks = in.readVarInt();
+            for (int i = 0; i < newTasks; i++) {
+                memory.newTasks.add(tasks.read(in));
+            }
+            readBag(in, tasks, memory.novelTasks);
+        }
+        synchronized (memory.seq_current) {
+            readBag(in, tasks, memory.seq_current);
+        }
+        synchronized (memory.recent_operations) {
+            readBag(in, tasks, memory.recent_operations);
+        }
+    }
+
+    static void writeConcept(final ChannelWriter out, final TaskIds tasks, final Concept c) throws IOException {
+        final TaskCodec codec = tasks.codec;
+        codec.writeTerm(out, c.term);
+        TaskCodec.writeBudget(out, c.budget);
+        writeTable(out, tasks, c.beliefs);
+        writeTable(out, tasks, c.desires);
+        writeTable(out, tasks, c.questions);
+        writeTable(out, tasks, c.quests);
+        writeTable(out, tasks, c.executable_preconditions);
+
+        out.writeVarInt(c.termLinks.size());
+        for (final TermLink link : c.termLinks) {
+            codec.writeTerm(out, link.target);
+            out.writeVarInt(link.type);
+            writeIndex(out, link.index);
+            TaskCodec.writeBudget(out, link.budget);
+        }
+        out.writeVarInt(c.taskLinks.size());
+        for (final TaskLink link : c.taskLinks) {
+            tasks.write(out, link.targetTask);
+            out.writeVarInt(link.type);
+            writeIndex(out, link.index);
+            TaskCodec.writeBudget(out, link.budget);
+        }
+    }
+
+    static Concept readConcept(final ChannelReader in, final TaskIds tasks, final Memory memory) throws IOException {
+        final TaskCodec codec = tasks.codec;
+        final Term term = codec.readTerm(in);
+        final Concept c = new Concept(codec.readBudget(in), term, memory);
+        readTable(in, tasks, c.beliefs);
+        readTable(in, tasks, c.desires);
+        readTable(in, tasks, c.questions);
+        readTable(in, tasks, c.quests);
+        readTable(in, tasks, c.executable_preconditions);
+
+        final int termLinks = in.readVarInt();
+        for (int i = 0; i < termLinks; i++) {
+            final Term target = codec.readTerm(in);
+            final short type = (short) in.readVarInt();
+            final short[] index = readIndex(in);
+            c.termLinkBag().putIn(new TermLink(target, type, index, codec.readBudget(in)));
+        }
+        final int taskLinks = in.readVarInt();
+        for (int i = 0; i < taskLinks; i++) {
+            final Task task = tasks.read(in);
+            final short type = (short) in.readVarInt();
+            final short[] index = readIndex(in);
+            c.taskLinkBag().putIn(new TaskLink(task, type, index, codec.readBudget(in), memory.narParameters.TERM_LINK_RECORD_LENGTH));
+        }
+        return c;
+    }
+
+    private static void writeTable(final ChannelWriter out, final TaskIds tasks, final List<Task> table) throws IOException {
+        out.writeVarInt(table.size());
+        for (final Task t : table) {
+            tasks.write(out, t);
+        }
+    }
+
+    private static void readTable(final ChannelReader in, final TaskIds tasks, final List<Task> table) throws IOException {
+        final int size = in.readVarInt();
+        for (int i = 0; i < size; i++) {
+            table.add(tasks.read(in));
+        }
+    }
+
+    private static void writeIndex(final ChannelWriter out, final short[] index) throws IOException {
+        if (index == null) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(index.length + 1);
+        for (final short i : index) {
+            out.writeVarInt(i);
+        }
+    }
+
+    private static short[] readIndex(final ChannelReader in) throws IOException {
+        final int length = in.readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        final short[] index = new short[length - 1];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = (short) in.readVarInt();
+        }
+        return index;
+    }
+}
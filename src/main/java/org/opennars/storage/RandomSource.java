@@ -0,0 +1,58 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import java.util.Random;
+
+/**
+ * Random with the same sequence as {@link Random}, whose state can be saved in a snapshot
+ * <p>
+ * The seed of a Random is private, this one keeps the state of the generator itself.
+ * A pending second gaussian value is not part of the state.
+ */
+public class RandomSource extends Random {
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /* set by setSeed, which the constructor of Random calls */
+    private long state;
+
+    public RandomSource(final long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(final long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected synchronized int next(final int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /** @return the state, from which {@link #setState(long)} continues the same sequence */
+    public synchronized long getState() {
+        return state;
+    }
+
+    public synchronized void setState(final long state) {
+        setSeed(state ^ MULTIPLIER);
+    }
+}
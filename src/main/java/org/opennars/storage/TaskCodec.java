@@ -0,0 +1,269 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.Stamp.BaseEntry;
+import org.opennars.entity.Task;
+import org.opennars.entity.TruthValue;
+import org.opennars.io.ChannelReader;
+import org.opennars.io.ChannelWriter;
+import org.opennars.io.Symbols.NativeOperator;
+import org.opennars.language.*;
+import org.opennars.operator.Operation;
+import org.opennars.operator.Operator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of terms and tasks
+ *
+ * Terms are written through a dictionary which is local to the stream:
+ * the first occurrence of a term writes its structure, later occurrences only its index.
+ * One codec instance is to be used for exactly one stream.
+ */
+public class TaskCodec {
+
+    /* term kinds, following a 0 dictionary reference */
+    private static final int ATOM = 0;
+    private static final int VARIABLE = 1;
+    private static final int INTERVAL = 2;
+    private static final int OPERATOR = 3;
+    private static final int OPERATION = 4;
+    private static final int IMAGE_EXT = 5;
+    private static final int IMAGE_INT = 6;
+    private static final int COMPOUND = 7;
+
+    /* task flags */
+    private static final int HAS_TRUTH = 1;
+    private static final int ANALYTIC = 2;
+    private static final int INPUT = 4;
+    private static final int ETERNAL = 8;
+
+    private static final NativeOperator[] operators = NativeOperator.values();
+
+    private final Memory memory;
+    private final Map<Term,Integer> written = new HashMap<>();
+    private final List<Term> read = new ArrayList<>();
+
+    public TaskCodec(final Memory memory) {
+        this.memory = memory;
+    }
+
+    public void writeTerm(final ChannelWriter out, final Term term) throws IOException {
+        final Integer id = written.get(term);
+        if (id != null) {
+            out.writeVarInt(id + 1);
+            return;
+        }
+        out.writeVarInt(0);
+        if (term instanceof Operation) {
+            final Operation op = (Operation) term;
+            out.writeByte(OPERATION);
+            writeTerm(out, op.getOperator());
+            writeTerms(out, ((CompoundTerm) op.getSubject()).term);
+        } else if (term instanceof Image) {
+            out.writeByte(term instanceof ImageExt ? IMAGE_EXT : IMAGE_INT);
+            out.writeVarInt(((Image) term).relationIndex);
+            writeTerms(out, ((CompoundTerm) term).term);
+        } else if (term instanceof CompoundTerm) {
+            out.writeByte(COMPOUND);
+            out.writeByte(term.operator().ordinal());
+            writeTerms(out, ((CompoundTerm) term).term);
+        } else {
+            if (term instanceof Operator) {
+                out.writeByte(OPERATOR);
+            } else if (term instanceof Interval) {
+                out.writeByte(INTERVAL);
+            } else if (term instanceof Variable) {
+                out.writeByte(VARIABLE);
+            } else {
+                out.writeByte(ATOM);
+            }
+            out.writeString(term.name());
+        }
+        written.put(term, written.size());
+    }
+
+    private void writeTerms(final ChannelWriter out, final Term[] terms) throws IOException {
+        out.writeVarInt(terms.length);
+        for (final Term t : terms) {
+            writeTerm(out, t);
+        }
+    }
+
+    public Term readTerm(final ChannelReader in) throws IOException {
+        final int ref = in.readVarInt();
+        if (ref > 0) {
+            if (ref > read.size()) {
+                throw new IOException("Invalid term reference: " + ref);
+            }
+            return read.get(ref - 1);
+        }
+        final int kind = in.readByte();
+        final Term term;
+        switch (kind) {
+            case ATOM:
+                term = Term.get(in.readString());
+                break;
+            case VARIABLE:
+                term = new Variable(in.readString());
+                break;
+            case INTERVAL:
+                term = Interval.interval(in.readString());
+                break;
+            case OPERATOR: {
+                final String name = in.readString();
+                term = memory.getOperator(name);
+                if (term == null) {
+                    throw new IOException("Unknown operator: " + name);
+                }
+                break;
+            }
+            case OPERATION: {
+                final Term op = readTerm(in);
+                if (!(op instanceof Operator)) {
+                    throw new IOException("Invalid operation predicate: " + op);
+                }
+                term = Operation.make((Operator) op, readTerms(in), false);
+                break;
+            }
+            case IMAGE_EXT: {
+                final short index = (short) in.readVarInt();
+                term = new ImageExt(readTerms(in), index);
+                break;
+            }
+            case IMAGE_INT: {
+                final short index = (short) in.readVarInt();
+                term = ImageInt.make(readTerms(in), index);
+                break;
+            }
+            case COMPOUND: {
+                final int op = in.readByte();
+                if (op >= operators.length) {
+                    throw new IOException("Invalid term operator: " + op);
+                }
+                term = Terms.term(operators[op], readTerms(in));
+                break;
+            }
+            default:
+                throw new IOException("Invalid term kind: " + kind);
+        }
+        if (term == null) {
+            throw new IOException("Unable to rebuild term of kind " + kind);
+        }
+        read.add(term);
+        return term;
+    }
+
+    private Term[] readTerms(final ChannelReader in) throws IOException {
+        final Term[] terms = new Term[in.readVarInt()];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = readTerm(in);
+        }
+        return terms;
+    }
+
+    public static void writeBudget(final ChannelWriter out, final BudgetValue budget) throws IOException {
+        out.writeFloat(budget.getPriority());
+        out.writeFloat(budget.getDurability());
+        out.writeFloat(budget.getQuality());
+    }
+
+    public BudgetValue readBudget(final ChannelReader in) throws IOException {
+        final float p = in.readFloat();
+        final float d = in.readFloat();
+        final float q = in.readFloat();
+        return new BudgetValue(p, d, q, memory.narParameters);
+    }
+
+    /**
+     * Writes sentence, stamp, budget and input flag of a task,
+     * parent belief and best solution are not kept
+     */
+    public void writeTask(final ChannelWriter out, final Task task) throws IOException {
+        final Sentence s = task.sentence;
+        final Stamp stamp = s.stamp;
+        final TruthValue truth = s.truth;
+        int flags = 0;
+        if (truth != null) {
+            flags |= HAS_TRUTH;
+            if (truth.getAnalytic()) {
+                flags |= ANALYTIC;
+            }
+        }
+        if (task.isInput()) {
+            flags |= INPUT;
+        }
+        if (stamp.isEternal()) {
+            flags |= ETERNAL;
+        }
+        writeTerm(out, s.term);
+        out.writeByte(s.punctuation);
+        out.writeByte(flags);
+        if (truth != null) {
+            out.writeFloat(truth.getFrequency());
+            out.writeFloat(truth.getConfidence());
+        }
+        out.writeSignedVarLong(stamp.getCreationTime());
+        if (!stamp.isEternal()) {
+            out.writeSignedVarLong(stamp.getOccurrenceTime() - stamp.getCreationTime());
+        }
+        out.writeVarInt(stamp.baseLength);
+        for (int i = 0; i < stamp.baseLength; i++) {
+            final BaseEntry e = stamp.evidentialBase[i];
+            out.writeSignedVarLong(e.narId);
+            out.writeVarLong(e.inputId);
+        }
+        writeBudget(out, task.budget);
+    }
+
+    public Task readTask(final ChannelReader in) throws IOException {
+        final Term term = readTerm(in);
+        final char punctuation = (char) in.readByte();
+        final int flags = in.readByte();
+        TruthValue truth = null;
+        if ((flags & HAS_TRUTH) != 0) {
+            final float f = in.readFloat();
+            final float c = in.readFloat();
+            truth = new TruthValue(f, c, (flags & ANALYTIC) != 0, memory.narParameters);
+        }
+        final long creationTime = in.readSignedVarLong();
+        final boolean eternal = (flags & ETERNAL) != 0;
+        final long occurrenceTime = eternal ? Stamp.ETERNAL : creationTime + in.readSignedVarLong();
+        final int baseLength = in.readVarInt();
+        if (baseLength <= 0) {
+            throw new IOException("Invalid evidential base length: " + baseLength);
+        }
+        final BaseEntry[] base = new BaseEntry[baseLength];
+        for (int i = 0; i < baseLength; i++) {
+            final long narId = in.readSignedVarLong();
+            base[i] = new BaseEntry(narId, in.readVarLong());
+        }
+        final Stamp stamp = new Stamp(creationTime, eternal ? Tense.Eternal : Tense.Present, base[0], memory.narParameters.DURATION);
+        stamp.evidentialBase = base;
+        stamp.baseLength = baseLength;
+        stamp.setOccurrenceTime(occurrenceTime);
+        final Sentence sentence = new Sentence(term, punctuation, truth, stamp);
+        final BudgetValue budget = readBudget(in);
+        return new Task(sentence, budget, (flags & INPUT) != 0 ? Task.EnumType.INPUT : Task.EnumType.DERIVED);
+    }
+}
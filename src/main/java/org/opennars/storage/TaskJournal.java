@@ -0,0 +1,181 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Stamp.BaseEntry;
+import org.opennars.entity.Task;
+import org.opennars.interfaces.Timable;
+import org.opennars.io.ChannelReader;
+import org.opennars.io.ChannelWriter;
+import org.opennars.io.UninterruptibleFileChannel;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log of the tasks entering memory from outside (input and operator feedback)
+ *
+ * The journal follows exactly one snapshot, identified by the snapshot time in its header.
+ * Replaying it on top of that snapshot restores the input the reasoner received since.
+ * It is written through an {@link UninterruptibleFileChannel}, as it is synced by the cycling thread.
+ */
+public class TaskJournal implements Closeable {
+
+    public static final int MAGIC = 0x4E41524A; // "NARJ"
+    public static final int VERSION = 1;
+
+    /* record kinds */
+    private static final int INPUT = 0;
+    private static final int EXECUTED = 1;
+    private static final int CLOCK = 2;
+
+    private final Path path;
+    private final Memory memory;
+    private ChannelWriter out;
+    private TaskCodec codec;
+    private long lastSync;
+    private long lastTime;
+
+    /**
+     * Creates an empty journal, replacing any existing file
+     *
+     * @param snapshotTime time of the snapshot the journal follows
+     */
+    public TaskJournal(final String path, final Memory memory, final long snapshotTime) throws IOException {
+        this.path = Paths.get(path);
+        this.memory = memory;
+        open(snapshotTime);
+    }
+
+    private void open(final long snapshotTime) throws IOException {
+        out = new ChannelWriter(new UninterruptibleFileChannel(path, true));
+        codec = new TaskCodec(memory);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeVarLong(snapshotTime);
+        out.sync();
+        lastSync = snapshotTime;
+        lastTime = snapshotTime;
+    }
+
+    /** appends a task accepted by {@link Memory#inputTask} */
+    public synchronized void input(final long time, final Task task) {
+        append(INPUT, time, task);
+    }
+
+    /** appends operator feedback created by {@link Memory#executedTask} */
+    public synchronized void executed(final long time, final Task task) {
+        append(EXECUTED, time, task);
+    }
+
+    private void append(final int kind, final long time, final Task task) {
+        try {
+            out.writeByte(kind);
+            out.writeVarLong(time);
+            codec.writeTask(out, task);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Unable to write journal " + path, ex);
+        }
+    }
+
+    /** forces the journal to disk if the configured amount of cycles passed since the last sync */
+    public synchronized void cycleEnd(final long time) throws IOException {
+        lastTime = time;
+        if (time - lastSync >= memory.narParameters.JOURNAL_SYNC_CYCLES) {
+            sync();
+        }
+    }
+
+    /** records the clock and forces the journal to disk */
+    public synchronized void sync() throws IOException {
+        out.writeByte(CLOCK);
+        out.writeVarLong(lastTime);
+        out.sync();
+        lastSync = lastTime;
+    }
+
+    /** empties the journal, called once a snapshot of the given time was written */
+    public synchronized void truncate(final long snapshotTime) throws IOException {
+        out.close();
+        open(snapshotTime);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        out.close();
+    }
+
+    /**
+     * Replays a journal into a memory restored from the snapshot it follows
+     *
+     * A journal written for another snapshot is ignored, a record cut off by a crash ends the replay.
+     *
+     * @return the time of the last replayed record, or the snapshot time
+     */
+    public static long replay(final String path, final Memory memory, final long snapshotTime) throws IOException {
+        final Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            return snapshotTime;
+        }
+        long time = snapshotTime;
+        try (ChannelReader in = new ChannelReader(FileChannel.open(file, StandardOpenOption.READ))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a task journal");
+            }
+            final int version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported journal version: " + version);
+            }
+            if (in.readVarLong() != snapshotTime) {
+                return snapshotTime;
+            }
+            final TaskCodec codec = new TaskCodec(memory);
+            final long[] recordTime = new long[1];
+            final Timable clock = () -> recordTime[0];
+            while (in.hasMore()) {
+                final int kind = in.readByte();
+                recordTime[0] = in.readVarLong();
+                if (kind == CLOCK) {
+                    time = recordTime[0];
+                    continue;
+                }
+                final Task task = codec.readTask(in);
+                for (final BaseEntry e : task.sentence.stamp.evidentialBase) {
+                    //keep new input from reusing the serials of replayed tasks
+                    if (e.narId == memory.narId && e.inputId >= memory.getCurrentStampSerial()) {
+                        memory.setCurrentStampSerial(e.inputId + 1);
+                    }
+                }
+                if (kind == EXECUTED) {
+                    task.setElemOfSequenceBuffer(true);
+                    memory.addNewTask(task, "Executed");
+                } else {
+                    memory.inputTask(clock, task, false);
+                }
+                time = recordTime[0];
+            }
+        } catch (final EOFException ex) {
+            //incomplete last record
+        }
+        return time;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Task;
+import org.opennars.interfaces.Timable;
+import org.opennars.io.events.OutputHandler.EXE;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.operator.Operation;
+import org.opennars.operator.Operator;
+import org.opennars.storage.Memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncOperatorTest {
+
+    static class Sleep extends Operator {
+        final long millis;
+
+        Sleep(final String name, final long millis) {
+            super(name);
+            this.millis = millis;
+            this.async = true;
+        }
+
+        @Override
+        protected List<Task> execute(final Operation operation, final Term[] args, final Memory memory, final Timable time) {
+            try {
+                Thread.sleep(millis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
+
+    @Test
+    public void testFeedbackAtCycleBoundaryAndTimeout() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.ASYNC_OPERATOR_MAX_IN_FLIGHT = 2;
+        nar.narParameters.ASYNC_OPERATOR_TIMEOUT_MS = 300;
+        final Sleep quick = new Sleep("^quick", 50);
+        final Sleep stuck = new Sleep("^stuck", 60000);
+        nar.addPlugin(quick);
+        nar.addPlugin(stuck);
+        final List<Object> executed = new ArrayList<>();
+        nar.on(EXE.class, (event, args) -> executed.add(args[0]));
+
+        final Operation q = (Operation) nar.narsese().parseTerm("<(*,{SELF}) --> ^quick>");
+        final Operation s = (Operation) nar.narsese().parseTerm("<(*,{SELF}) --> ^stuck>");
+        assertTrue(quick.call(q, q.getArguments().term, nar.memory, nar));
+        assertTrue(stuck.call(s, s.getArguments().term, nar.memory, nar));
+        assertFalse(quick.call(q, q.getArguments().term, nar.memory, nar)); //in-flight limit
+        assertTrue(executed.isEmpty());
+
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (nar.memory.operatorExecutor().inFlight() > 0 && System.currentTimeMillis() < deadline) {
+            nar.cycles(1);
+            Thread.sleep(5);
+        }
+        assertEquals(2, executed.size());
+        assertTrue(executed.get(0).toString().contains("^quick"));
+        assertTrue(executed.get(1).toString().contains(TimeoutException.class.getSimpleName()));
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.main.BulkLoader;
+import org.opennars.main.Nar;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class BulkLoaderTest {
+
+    private static String knowledge(final int n) {
+        final StringBuilder b = new StringBuilder();
+        b.append("'background knowledge\n");
+        for (int i = 0; i < n; i++) {
+            b.append("<a").append(i).append(" --> b").append(i).append(">.\n");
+            if (i % 100 == 0) {
+                b.append("5\n");
+            }
+        }
+        return b.toString();
+    }
+
+    @Test
+    public void testDeferredCycles() throws Exception {
+        final Nar nar = new Nar();
+        final long loaded = new BulkLoader(nar, 4, 16, true).load(new StringReader(knowledge(1000)));
+        assertEquals(1000, loaded);
+        assertEquals(50, nar.time());
+        assertNotNull(nar.concept("<a0 --> b0>"));
+    }
+
+    @Test
+    public void testCyclesInOrder() throws Exception {
+        final Nar nar = new Nar();
+        new BulkLoader(nar, 4, 16, false).load(new StringReader("<a --> b>.\n3\n<b --> c>. :|:\n"));
+        assertEquals(3, nar.time());
+        assertNotNull(nar.concept("<a --> b>"));
+        nar.cycles(1);
+        assertNotNull(nar.concept("<b --> c>"));
+    }
+}
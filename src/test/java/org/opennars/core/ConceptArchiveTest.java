@@ -0,0 +1,161 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Concept;
+import org.opennars.io.Narsese;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.storage.ConceptArchive;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConceptArchiveTest {
+
+    private static Concept forget(final Nar nar, final Term term) {
+        final Concept c;
+        synchronized (nar.memory.concepts) {
+            c = nar.memory.concepts.take(term);
+            nar.memory.conceptRemoved(c);
+        }
+        return c;
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+        final File file = File.createTempFile("concepts", ".archive");
+        final Nar nar = new Nar();
+        nar.startArchive(file.getPath());
+        final ConceptArchive archive = nar.memory.archive;
+        final Term term = new Narsese(nar).parseTerm("<a --> b>");
+        nar.addInput("<a --> b>. %1.0;0.9%");
+        nar.cycles(10);
+
+        final Concept forgotten = forget(nar, term);
+        assertEquals(1, forgotten.beliefs.size());
+        assertTrue(archive.contains(term));
+        assertNull(nar.memory.concept(term));
+        assertEquals(0, archive.getFileSize());
+        archive.cycle();
+        assertEquals(1, archive.getStored());
+        assertTrue(archive.getFileSize() > 0);
+
+        final Concept restored = nar.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), term);
+        assertNotNull(restored);
+        assertEquals(1, archive.getRestored());
+        assertFalse(archive.contains(term));
+        assertEquals(forgotten.beliefs.get(0).sentence, restored.beliefs.get(0).sentence);
+        assertEquals(forgotten.termLinks.size(), restored.termLinks.size());
+
+        nar.reset();
+        assertEquals(0, archive.size());
+        nar.stopArchive();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testMergeWhenReadsAreUsedUp() throws Exception {
+        final File file = File.createTempFile("concepts", ".archive");
+        final Nar nar = new Nar();
+        nar.startArchive(file.getPath());
+        final ConceptArchive archive = nar.memory.archive;
+        final Term term = new Narsese(nar).parseTerm("<a --> b>");
+        nar.addInput("<a --> b>. %1.0;0.9%");
+        nar.cycles(10);
+        forget(nar, term);
+        archive.cycle();
+
+        nar.narParameters.ARCHIVE_READS_PER_CYCLE = 0;
+        final Concept fresh = nar.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), term);
+        assertTrue(fresh.beliefs.isEmpty());
+        assertTrue(archive.contains(term));
+
+        nar.narParameters.ARCHIVE_READS_PER_CYCLE = 16;
+        archive.cycle();
+        assertEquals(1, archive.getMerged());
+        assertFalse(archive.contains(term));
+        assertEquals(1, fresh.beliefs.size());
+        nar.stopArchive();
+    }
+
+    @Test
+    public void testQueuedAndBoundedPending() throws Exception {
+        final File file = File.createTempFile("concepts", ".archive");
+        final Nar nar = new Nar();
+        nar.startArchive(file.getPath());
+        final ConceptArchive archive = nar.memory.archive;
+        final BudgetValue budget = new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters);
+        final int n = 3 + ConceptArchive.PENDING_PER_READ;
+        final Term[] terms = new Term[n];
+        for (int i = 0; i < n; i++) {
+            terms[i] = Term.get("x" + i);
+            nar.memory.conceptualize(budget, terms[i]);
+            forget(nar, terms[i]);
+        }
+
+        //not written yet, restored without reading
+        final Concept queued = archive.restore(terms[0]);
+        assertNotNull(queued);
+        assertEquals(terms[0], queued.term);
+        assertEquals(0, archive.getFileSize());
+
+        archive.cycle();
+        assertEquals(n - 1, archive.getStored());
+        assertEquals(n - 1, archive.size());
+
+        //one read, the remaining terms wait up to the limit
+        nar.narParameters.ARCHIVE_READS_PER_CYCLE = 1;
+        for (int i = 1; i < n; i++) {
+            nar.memory.conceptualize(budget, terms[i]);
+        }
+        assertEquals(2, archive.getRestored());
+        nar.narParameters.ARCHIVE_READS_PER_CYCLE = 16;
+        archive.cycle();
+        assertEquals(ConceptArchive.PENDING_PER_READ, archive.getMerged());
+        assertTrue(archive.contains(terms[n - 1]));
+        nar.stopArchive();
+    }
+
+    @Test
+    public void testWritesAreSpreadOverCycles() throws Exception {
+        final File file = File.createTempFile("concepts", ".archive");
+        final Nar nar = new Nar();
+        nar.startArchive(file.getPath());
+        final ConceptArchive archive = nar.memory.archive;
+        final BudgetValue budget = new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters);
+        for (int i = 0; i < 3; i++) {
+            final Term term = Term.get("y" + i);
+            nar.memory.conceptualize(budget, term);
+            forget(nar, term);
+        }
+
+        //at least one concept is written per cycle, even without bytes to spend
+        nar.narParameters.ARCHIVE_WRITE_KILOBYTES_PER_CYCLE = 0;
+        for (int i = 1; i <= 3; i++) {
+            archive.cycle();
+            assertEquals(i, archive.getStored());
+        }
+        assertEquals(3, archive.size());
+        nar.stopArchive();
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Concept;
+import org.opennars.main.Nar;
+import org.opennars.io.events.Events.ConceptForget;
+import org.opennars.storage.ConceptBag;
+import org.opennars.storage.LevelBag;
+import org.opennars.storage.Memory;
+import org.opennars.storage.MemoryFootprint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConceptBagTest {
+
+    private static Concept concept(final Nar nar, final String term) throws Exception {
+        return new Concept(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), nar.narsese().parseTerm(term), nar.memory);
+    }
+
+    @Test
+    public void testByteBudget() throws Exception {
+        final Nar nar = new Nar();
+        final Concept a = concept(nar, "a");
+        final Concept b = concept(nar, "b");
+        final Concept large = concept(nar, "<(&&,<x --> y>,<y --> z>,<z --> w>) ==> <(*,x,w) --> related>>");
+        final long smallBytes = MemoryFootprint.estimate(a).total();
+        final long largeBytes = MemoryFootprint.estimate(large).total();
+        assertTrue(largeBytes > smallBytes);
+
+        final ConceptBag bag = new ConceptBag(10, 100, 2 * smallBytes + largeBytes - 1, nar.narParameters);
+        final Memory memory = new Memory(nar.narParameters, nar.new RuntimeParameters(), bag,
+            new LevelBag<>(2, 10, nar.narParameters), new LevelBag<>(2, 10, nar.narParameters), new LevelBag<>(2, 10, nar.narParameters));
+        final List<Concept> forgotten = new ArrayList<>();
+        memory.event.on(ConceptForget.class, (event, args) -> forgotten.add((Concept) args[0]));
+
+        assertNull(bag.putIn(a));
+        assertNull(bag.putIn(large));
+        assertEquals(smallBytes + largeBytes, bag.getBytes());
+
+        //same priority, the larger one is evicted and reported, the inserted one stays
+        assertNull(bag.putIn(b));
+        assertEquals(Arrays.asList(large), forgotten);
+        assertEquals(2, bag.size());
+        assertEquals(2 * smallBytes, bag.getBytes());
+
+        //a much higher priority outweighs the size
+        large.budget.setPriority(1.0f);
+        a.budget.setPriority(0.01f);
+        b.budget.setPriority(0.01f);
+        assertNull(bag.putIn(large));
+        assertEquals(2, forgotten.size());
+        assertNotNull(bag.get(large.term));
+        assertEquals(smallBytes + largeBytes, bag.getBytes());
+
+        //the inserted concept is kept even if it alone exceeds the budget
+        bag.take(large.term);
+        final ConceptBag tiny = new ConceptBag(10, 100, 1, nar.narParameters);
+        assertNull(tiny.putIn(large));
+        assertEquals(largeBytes, tiny.getBytes());
+        tiny.take(large.term);
+        assertEquals(0, tiny.getBytes());
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.io.events.Events.CycleEnd;
+import org.opennars.main.CyclePacer;
+import org.opennars.main.CyclePacer.Policy;
+import org.opennars.main.Nar;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CyclePacerTest {
+
+    @Test
+    public void testFixedRate() throws Exception {
+        final Nar nar = new Nar();
+        final CyclePacer pacer = CyclePacer.atRate(nar, 200, Policy.CATCH_UP);
+        pacer.start();
+        Thread.sleep(300);
+        pacer.stop();
+        assertTrue("ran " + pacer.getCycles(), pacer.getCycles() >= 30 && pacer.getCycles() <= 80);
+        assertEquals(0, pacer.getSkippedTicks());
+    }
+
+    @Test
+    public void testBudgetAndSkip() throws Exception {
+        final Nar nar = new Nar();
+        final CyclePacer pacer = new CyclePacer(nar, TimeUnit.MILLISECONDS.toNanos(10), Policy.SKIP);
+        pacer.setBudgetNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        pacer.start();
+        Thread.sleep(100);
+        assertTrue(pacer.getLastCyclesPerTick() > 1);
+
+        //cycles now take longer than a tick
+        nar.on(CycleEnd.class, (event, args) -> {
+            try {
+                Thread.sleep(25);
+            } catch (final InterruptedException e) {
+            }
+        });
+        Thread.sleep(300);
+        pacer.stop();
+        assertTrue(pacer.getSkippedTicks() > 0);
+        assertTrue(pacer.getMaxLatenessNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testRestartAndFailure() throws Exception {
+        final Nar nar = new Nar();
+        final CyclePacer pacer = CyclePacer.atRate(nar, 1000, Policy.SKIP);
+        pacer.start();
+        pacer.stop();
+        pacer.start();
+        Thread.sleep(20);
+        pacer.stop();
+        final long time = nar.time();
+        Thread.sleep(50);
+        assertEquals(time, nar.time());
+        assertFalse(pacer.isRunning());
+
+        nar.on(CycleEnd.class, (event, args) -> {
+            throw new IllegalStateException("failed cycle");
+        });
+        pacer.start();
+        for (int i = 0; i < 100 && pacer.isRunning(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(pacer.isRunning());
+        assertNotNull(pacer.getError());
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
+import org.opennars.io.events.Events.Answer;
+import org.opennars.io.events.Events.TaskDerive;
+import org.opennars.language.Term;
+import org.opennars.main.Federation;
+import org.opennars.main.Nar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FederationTest {
+
+    @Test
+    public void testDerivationsAreRoutedToTheirShard() throws Exception {
+        final Federation federation = new Federation(Arrays.asList(new Nar(1), new Nar(2)));
+        final AtomicInteger answers = new AtomicInteger();
+        federation.on(Answer.class, (event, args) -> answers.incrementAndGet());
+        final List<List<Term>> foreign = new ArrayList<>();
+        for (int i = 0; i < federation.size(); i++) {
+            final int shard = i;
+            final List<Term> terms = new ArrayList<>();
+            foreign.add(terms);
+            federation.getShard(i).on(TaskDerive.class, (event, args) -> {
+                final Term term = ((Task) args[0]).getTerm();
+                if (federation.shardOf(term) != shard) {
+                    terms.add(term);
+                }
+            });
+        }
+
+        federation.addInput("<bird --> animal>.");
+        federation.addInput("<robin --> bird>.");
+        federation.addInput("<swan --> bird>.");
+        federation.addInput("<robin --> [flying]>.");
+        federation.addInput("<robin --> animal>?");
+        federation.cycles(200);
+
+        long sent = 0, received = 0;
+        for (int i = 0; i < federation.size(); i++) {
+            sent += federation.getSent(i);
+            received += federation.getReceived(i);
+            assertEquals(0, federation.getDropped(i));
+        }
+        assertTrue(sent > 0);
+        assertEquals(sent, received);
+
+        assertTrue(answers.get() > 0);
+
+        //derivations for terms of another shard did not fill tables of the deriving one
+        int routed = 0;
+        for (int i = 0; i < federation.size(); i++) {
+            for (final Term term : foreign.get(i)) {
+                final Concept c = federation.getShard(i).memory.concept(term);
+                assertTrue(c == null || (c.beliefs.isEmpty() && c.questions.isEmpty() && c.desires.isEmpty()));
+                routed++;
+            }
+        }
+        assertTrue(routed > 0);
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.main.Nar;
+import org.opennars.operator.Operation;
+import org.opennars.operator.misc.Add;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class FunctionOperatorTest {
+
+    @Test
+    public void testPureFunctionIsMemoized() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.FUNCTION_CACHE_SIZE = 1;
+        final Add add = new Add();
+        nar.addPlugin(add);
+        final Operation a = (Operation) nar.narsese().parseTerm("<(*,{SELF},1,2,$y) --> ^add>");
+        final Operation b = (Operation) nar.narsese().parseTerm("<(*,{SELF},2,3,$y) --> ^add>");
+        add.call(a, a.getArguments().term, nar.memory, nar);
+        add.call(a, a.getArguments().term, nar.memory, nar);
+        assertEquals(1, add.getCacheHits());
+        assertEquals(1, add.getCacheMisses());
+
+        //capacity 1: b evicts a
+        add.call(b, b.getArguments().term, nar.memory, nar);
+        add.call(a, a.getArguments().term, nar.memory, nar);
+        assertEquals(1, add.getCacheHits());
+        assertEquals(3, add.getCacheMisses());
+
+        nar.cycles(2);
+        assertNotNull(nar.memory.concept(nar.narsese().parseTerm("<(*,{SELF},1,2,3) --> ^add>")));
+    }
+}
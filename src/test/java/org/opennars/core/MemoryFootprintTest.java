@@ -0,0 +1,72 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Concept;
+import org.opennars.io.Narsese;
+import org.opennars.io.Symbols.NativeOperator;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.storage.MemoryFootprint;
+import org.opennars.storage.MemoryFootprint.Usage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryFootprintTest {
+
+    @Test
+    public void testEstimate() throws Exception {
+        final Nar nar = new Nar();
+        final MemoryFootprint.Tracker tracker = new MemoryFootprint.Tracker(nar.memory);
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.addInput("<a --> c>?");
+        nar.cycles(200);
+
+        final MemoryFootprint f = MemoryFootprint.of(nar.memory);
+        assertEquals(nar.memory.concepts.size(), f.total.concepts);
+        assertEquals(f.total.concepts, f.byConcept.size());
+        long sum = 0;
+        for (final Usage u : f.byOperator.values()) {
+            sum += u.total();
+        }
+        assertEquals(f.total.total(), sum);
+        sum = 0;
+        for (final Usage u : f.byComplexity.values()) {
+            sum += u.total();
+        }
+        assertEquals(f.total.total(), sum);
+
+        final Term term = new Narsese(nar).parseTerm("<a --> b>");
+        final Usage ab = MemoryFootprint.estimate(nar.memory.concept(term));
+        assertTrue(ab.tables > 0 && ab.stamps > 0 && ab.terms > 0);
+
+        //a concept without content still costs its object, budget and table lists
+        final Usage empty = MemoryFootprint.estimate(new Concept(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), Term.get("unused"), nar.memory));
+        assertTrue(empty.structure >= 250);
+        assertEquals(0, empty.taskLinks + empty.termLinks + empty.tables);
+        assertTrue(ab.structure > empty.structure);
+        assertTrue(f.byOperator.get(NativeOperator.ATOM).concepts >= 3);
+        assertTrue(f.largest(1).get(0).getValue().total() >= ab.total());
+
+        assertTrue(tracker.getTotal() > 0);
+        nar.reset();
+        assertEquals(0, tracker.getTotal());
+        tracker.close();
+    }
+}
@@ -43,7 +43,7 @@ public class NALTest  {
         
 
     static {
-        Memory.randomNumber.setSeed(1);
+        Memory.resetStatic();
         MiscFlags.DEBUG = false;
         MiscFlags.TEST_RUNNING = true;
     }
@@ -0,0 +1,87 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.io.events.Events.CycleStart;
+import org.opennars.main.Nar;
+import org.opennars.main.NarHost;
+import org.opennars.main.NarHost.Tenant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NarHostTest {
+
+    @Test
+    public void testTenantsShareCarriers() throws Exception {
+        final NarHost host = new NarHost(2);
+        try {
+            final List<Tenant> tenants = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                final Nar nar = new Nar();
+                nar.addInput("<a" + i + " --> b>.");
+                tenants.add(host.add(nar));
+            }
+            final Tenant limited = host.add(new Nar(), 50);
+            Thread.sleep(400);
+            for (final Tenant t : tenants) {
+                assertTrue(t.getCycles() > 0);
+                assertTrue(t.getCycles() <= t.getNar().time());
+                assertTrue(t.getBusyNanos() > 0);
+            }
+            assertTrue("limited tenant ran " + limited.getCycles(), limited.getCycles() >= 5 && limited.getCycles() <= 40);
+
+            final Tenant removed = tenants.get(0);
+            host.remove(removed);
+            Thread.sleep(20);
+            final long cycles = removed.getNar().time();
+            Thread.sleep(50);
+            assertEquals(cycles, removed.getNar().time());
+            assertFalse(removed.isActive());
+            assertEquals(6, host.getTenants().size());
+        } finally {
+            host.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrorStopsOnlyItsTenant() throws Exception {
+        final NarHost host = new NarHost(1);
+        final Nar failing = new Nar();
+        failing.on(CycleStart.class, (event, args) -> {
+            throw new AssertionError("broken tenant");
+        });
+        final Tenant broken = host.add(failing);
+        final Tenant healthy = host.add(new Nar());
+        Thread.sleep(100);
+        assertTrue(broken.getError() instanceof AssertionError);
+        assertFalse(broken.isActive());
+        assertNull(healthy.getError());
+        final long before = healthy.getCycles();
+        Thread.sleep(50);
+        assertTrue(healthy.getCycles() > before); //the only carrier is still alive
+
+        host.shutdown();
+        final long cycles = healthy.getNar().time();
+        Thread.sleep(20);
+        assertEquals(cycles, healthy.getNar().time());
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.io.events.Events.CycleStart;
+import org.opennars.main.Nar;
+import org.opennars.main.NarseseServer;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NarseseServerTest {
+
+    private static String readUntil(final BufferedReader in, final String prefix) throws Exception {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testPipelinedInputAndFiltering() throws Exception {
+        final Nar nar = new Nar();
+        final NarseseServer server = new NarseseServer(nar, 0).start();
+        try (Socket a = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Socket b = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            a.setSoTimeout(10000);
+            b.setSoTimeout(10000);
+            final OutputStream outA = a.getOutputStream();
+            final OutputStream outB = b.getOutputStream();
+            final BufferedReader inA = new BufferedReader(new InputStreamReader(a.getInputStream(), StandardCharsets.UTF_8));
+            final BufferedReader inB = new BufferedReader(new InputStreamReader(b.getInputStream(), StandardCharsets.UTF_8));
+
+            outB.write("*output=exe\n<<(\n".getBytes(StandardCharsets.UTF_8));
+            outB.flush();
+            assertTrue(inB.readLine().startsWith("ERR: "));
+
+            outA.write("<a --> b>.\n<b --> c>.\n<a --> c>?\n10\n".getBytes(StandardCharsets.UTF_8));
+            outA.flush();
+            final String answer = readUntil(inA, "Answer: ");
+            assertNotNull(answer);
+            assertTrue(answer.contains("<a --> c>"));
+
+            //the filtered client got no answer before its next reply
+            outB.write("<<(\n".getBytes(StandardCharsets.UTF_8));
+            outB.flush();
+            assertTrue(inB.readLine().startsWith("ERR: "));
+            assertTrue(server.isRunning());
+        } finally {
+            server.stop();
+        }
+        assertFalse(server.isRunning());
+        assertNull(server.getError());
+    }
+
+    @Test
+    public void testCyclesDoNotHoldUpTheSelector() throws Exception {
+        final Nar nar = new Nar();
+        final CountDownLatch cycling = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        nar.memory.event.on(CycleStart.class, (event, args) -> {
+            cycling.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final NarseseServer server = new NarseseServer(nar, 0).start();
+        try (Socket a = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            a.getOutputStream().write("1\n".getBytes(StandardCharsets.UTF_8));
+            a.getOutputStream().flush();
+            assertTrue(cycling.await(10, TimeUnit.SECONDS));
+
+            //accepted while the cycle is still running
+            try (Socket b = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                final long deadline = System.currentTimeMillis() + 10000;
+                while (server.getClientCount() < 2 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertEquals(2, server.getClientCount());
+                assertEquals(0, nar.time());
+            }
+        } finally {
+            release.countDown();
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.TruthValue;
+import org.opennars.main.Nar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ProjectionTest {
+
+    @Test
+    public void testPrimitiveAndMemoizedProjection() throws Exception {
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>. :|:");
+        nar.cycles(1);
+        final Concept c = nar.concept("<a --> b>");
+        final Sentence belief = c.beliefs.get(0).sentence;
+        final long now = nar.time();
+        final long event = belief.getOccurenceTime();
+
+        for (final long target : new long[] {event, event + 5, event + 100000000L}) {
+            final TruthValue truth = belief.projectionTruth(target, now, nar.memory);
+            final float confidence = belief.projectionConfidence(target, now, nar.memory);
+            if (belief.projection(target, now, nar.memory).isEternal()) {
+                assertEquals(-1, confidence, 0);
+            } else {
+                assertEquals(truth.getConfidence(), confidence, 0);
+            }
+        }
+        assertEquals(-1, belief.projectionConfidence(Stamp.ETERNAL, now, nar.memory), 0);
+
+        final Sentence p = c.projection(belief, event + 3, now);
+        assertSame(p, c.projection(belief, event + 3, now));
+        assertNotSame(p, c.projection(belief, event + 4, now));
+        assertNotSame(p, c.projection(belief, event + 3, now + 1));
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.io.events.Events;
+import org.opennars.main.Nar;
+import org.opennars.storage.Memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RandomSourceTest {
+
+    @Test
+    public void testEachMemoryHasItsOwnRandom() throws Exception {
+        final Nar a = new Nar();
+        final Nar b = new Nar();
+        assertNotSame(a.memory.randomNumber, b.memory.randomNumber);
+
+        final int first = b.memory.randomNumber.nextInt();
+        b.memory.randomNumber.nextInt();
+        a.reset(); //must not reseed b
+        final int third = b.memory.randomNumber.nextInt();
+        b.reset();
+        assertEquals(first, b.memory.randomNumber.nextInt());
+        b.memory.randomNumber.nextInt();
+        assertEquals(third, b.memory.randomNumber.nextInt());
+    }
+
+    @Test
+    public void testCyclesUseTheirMemoryRandom() throws Exception {
+        final Nar nar = new Nar();
+        final Object[] seen = new Object[1];
+        nar.memory.event.on(Events.CycleStart.class, (event, args) -> seen[0] = Memory.random());
+        nar.cycles(1);
+        assertSame(nar.memory.randomNumber, seen[0]);
+        assertNotSame(nar.memory.randomNumber, Memory.random());
+    }
+}
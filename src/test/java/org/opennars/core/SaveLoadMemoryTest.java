@@ -14,16 +14,23 @@
  */
 package org.opennars.core;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.text.ParseException;
 import javax.xml.parsers.ParserConfigurationException;
 import org.junit.Test;
 import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
+import org.opennars.entity.TaskLink;
 import org.opennars.io.Narsese;
 import org.opennars.main.Nar;
 import org.xml.sax.SAXException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
 /**
  *
  * @author patha
@@ -41,4 +48,116 @@ public class SaveLoadMemoryTest {
         Concept c2 = nar2.concept("<a --> b>");
         assert(c2 != null);
     }
+
+    @Test
+    public void testSnapshotRestoresBeliefsAndClock() throws Exception {
+        Nar nar = new Nar();
+        nar.addInput("<(*,a,b) --> like>. %0.8;0.7%");
+        nar.addInput("<(/,like,_,b) <-> {x}>.");
+        nar.addInput("<<$1 --> bird> ==> <$1 --> animal>>.");
+        nar.addInput("<(&/,<a --> b>,+5,(^pick,{SELF},a)) =/> <a --> c>>.");
+        nar.cycles(10);
+        String fname = "test2.nars";
+        nar.SaveToFile(fname);
+        Nar nar2 = Nar.LoadFromFile(fname);
+        new File(fname).delete();
+        assertEquals(nar.time(), nar2.time());
+        assertEquals(nar.memory.narId, nar2.memory.narId);
+        assertEquals(nar.memory.concepts.size(), nar2.memory.concepts.size());
+        for (String t : new String[] {"<(*,a,b) --> like>", "<(/,like,_,b) <-> {x}>", "<<$1 --> bird> ==> <$1 --> animal>>"}) {
+            Concept c1 = nar.concept(t);
+            Concept c2 = nar2.concept(t);
+            assertNotNull(c2);
+            assertEquals(c1.beliefs.size(), c2.beliefs.size());
+            assertEquals(c1.beliefs.get(0).sentence, c2.beliefs.get(0).sentence);
+            assertEquals(c1.beliefs.get(0).sentence.truth, c2.beliefs.get(0).sentence.truth);
+            assertEquals(c1.termLinks.size(), c2.termLinks.size());
+            assertEquals(c1.taskLinks.size(), c2.taskLinks.size());
+        }
+        nar2.cycles(10); //restored memory keeps reasoning
+    }
+
+    @Test
+    public void testJournalRecovery() throws Exception {
+        Nar nar = new Nar();
+        String snapshot = "test3.nars";
+        String journal = "test3.narj";
+        nar.addInput("<a --> b>.");
+        nar.cycles(5);
+        nar.startJournal(snapshot, journal);
+        nar.addInput("<b --> c>.");
+        nar.addInput("<c --> d>. :|:");
+        nar.cycles(5);
+        nar.stopJournal();
+        Nar nar2 = Nar.recover(snapshot, journal);
+        new File(snapshot).delete();
+        new File(journal).delete();
+        assertEquals(nar.time(), nar2.time());
+        nar2.cycles(5);
+        assertNotNull(nar2.concept("<a --> b>"));
+        assertEquals(1, nar2.concept("<b --> c>").beliefs.size());
+        assertNotNull(nar2.concept("<c --> d>"));
+    }
+
+    @Test
+    public void testJournalSurvivesInterrupt() throws Exception {
+        Nar nar = new Nar();
+        String snapshot = "test4.nars";
+        String journal = "test4.narj";
+        nar.narParameters.JOURNAL_SYNC_CYCLES = 1;
+        nar.startJournal(snapshot, journal);
+        nar.addInput("<a --> b>.");
+        //as by Nar.stop() while the cycling thread syncs the journal
+        Thread.currentThread().interrupt();
+        try {
+            nar.cycles(2);
+        } finally {
+            Thread.interrupted();
+        }
+        nar.addInput("<b --> c>.");
+        nar.cycles(2);
+        nar.stopJournal();
+        Nar nar2 = Nar.recover(snapshot, journal);
+        new File(snapshot).delete();
+        new File(journal).delete();
+        assertEquals(nar.time(), nar2.time());
+        nar2.cycles(2);
+        assertNotNull(nar2.concept("<b --> c>"));
+    }
+
+    @Test
+    public void testSnapshotKeepsRuntimeState() throws Exception {
+        Nar nar = new Nar();
+        nar.addInput("*volume=0");
+        nar.addInput("*decisionthreshold=0.7");
+        nar.memory.param.conceptForgetDurations.set(3.5);
+        nar.addInput("<a --> b>. :|:");
+        nar.addInput("<b --> c>.");
+        nar.cycles(10);
+        nar.memory.emotion.set(0.25f, 0.75f);
+        nar.memory.randomNumber.nextInt();
+        String fname = "test5.nars";
+        nar.SaveToFile(fname);
+        Nar nar2 = Nar.LoadFromFile(fname);
+        new File(fname).delete();
+
+        assertEquals(0, nar2.param.noiseLevel.get());
+        assertEquals(0.7f, nar2.narParameters.DECISION_THRESHOLD, 0.0001f);
+        assertEquals(3.5, nar2.memory.param.conceptForgetDurations.get(), 0.0);
+        assertEquals(0.25f, nar2.memory.emotion.happy(), 0.0f);
+        assertEquals(0.75f, nar2.memory.emotion.busy(), 0.0f);
+        assertEquals(nar.memory.seq_current.size(), nar2.memory.seq_current.size());
+        assertEquals(nar.memory.recent_operations.size(), nar2.memory.recent_operations.size());
+        assertEquals(nar.memory.randomNumber.nextLong(), nar2.memory.randomNumber.nextLong());
+
+        //task links share their task with the tables
+        Concept c = nar2.concept("<b --> c>");
+        boolean shared = false;
+        for (TaskLink link : c.taskLinks) {
+            for (Task t : c.beliefs) {
+                shared |= link.targetTask == t;
+            }
+        }
+        assertTrue(shared);
+    }
 }
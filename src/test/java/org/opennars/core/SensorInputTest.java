@@ -0,0 +1,88 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.Task;
+import org.opennars.interfaces.Timable;
+import org.opennars.io.ChannelReader;
+import org.opennars.io.ChannelWriter;
+import org.opennars.main.Nar;
+import org.opennars.main.SensorInput;
+import org.opennars.plugin.perception.SensoryChannel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class SensorInputTest {
+
+    @Test
+    public void testBinaryBatchBecomesJudgments() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ChannelWriter out = new ChannelWriter(bytes)) {
+            SensorInput.writeDefinition(out, 0, "<{light} --> [bright]>");
+            SensorInput.writeDefinition(out, 1, "<{door} --> [open]>");
+            SensorInput.writeBatch(out, 3, new int[] {0, 1, 0}, new float[] {1.0f, 0.0f, 0.8f},
+                new float[] {0.9f, 0.8f, 0.9f}, new long[] {Stamp.ETERNAL, Stamp.ETERNAL, 0});
+        }
+
+        final Nar nar = new Nar();
+        final SensorInput input = new SensorInput(nar);
+        final long events = input.read(new ChannelReader(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(3, events);
+        assertEquals(nar.narsese().parseTerm("<{door} --> [open]>"), input.term(1));
+
+        final Task present = input.event(input.term(0), 0.5f, 0.7f, 42);
+        assertEquals(42, present.sentence.stamp.getOccurrenceTime());
+        assertEquals(0.7f, present.sentence.truth.getConfidence(), 0.001f);
+
+        nar.cycles(5);
+        final Concept door = nar.concept("<{door} --> [open]>");
+        assertNotNull(door);
+        assertEquals(0.0f, door.beliefs.get(0).sentence.truth.getFrequency(), 0.001f);
+    }
+
+    @Test
+    public void testPixelEventKeepsStampAndBudget() throws Exception {
+        final Nar nar = new Nar();
+        final List<Task> received = new ArrayList<>();
+        nar.addSensoryChannel("[cam]", new SensoryChannel(nar, new ArrayList<>(), 3, 3, 5, null) {
+            @Override
+            public Nar addInput(final Task t, final Timable time) {
+                received.add(t);
+                return nar;
+            }
+        });
+        final SensorInput input = new SensorInput(nar);
+        final long serial = nar.memory.getCurrentStampSerial();
+        final Task event = input.event(nar.narsese().parseTerm("<{p[1.0,-1.0]} --> [cam]>"), 0.9f, 0.8f, 42);
+        input.add(event.getTerm(), 0.9f, 0.8f, 42);
+
+        assertEquals(1, received.size());
+        final Task pixel = received.get(0);
+        assertEquals(nar.narsese().parseTerm("<{p[2,0]} --> [cam]>"), pixel.getTerm());
+        assertEquals(2, pixel.getTerm().term_indices[2]);
+        assertEquals(42, pixel.sentence.stamp.getOccurrenceTime());
+        assertEquals(0.8f, pixel.sentence.truth.getConfidence(), 0.001f);
+        assertEquals(serial + 2, nar.memory.getCurrentStampSerial());
+    }
+}
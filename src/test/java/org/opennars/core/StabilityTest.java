@@ -41,7 +41,7 @@ import static org.junit.Assert.assertTrue;
 @RunWith(Parameterized.class)
 public class StabilityTest {
     static {
-        Memory.randomNumber.setSeed(1);
+        Memory.resetStatic();
         MiscFlags.DEBUG = false;
         MiscFlags.TEST_RUNNING = true;
     }
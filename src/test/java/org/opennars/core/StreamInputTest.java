@@ -0,0 +1,46 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.main.Nar;
+import org.opennars.main.StreamInput;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class StreamInputTest {
+
+    @Test
+    public void testDrainBudgetAndCycleCounts() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.INPUT_TASKS_PER_CYCLE = 2;
+        final StreamInput input = new StreamInput(nar, new StringReader("<a --> b>.\n<b --> c>.\n<c --> d>.\n3\n<d --> e>.\n"), 2).start();
+        int inputs = 0;
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (!input.isFinished() && System.currentTimeMillis() < deadline) {
+            final int drained = input.drain();
+            assertTrue(drained <= 2);
+            inputs += drained;
+            nar.cycles(1);
+        }
+        assertEquals(4, inputs);
+        assertTrue(input.isFinished());
+        assertNotNull(nar.concept("<d --> e>"));
+    }
+}
@@ -16,13 +16,17 @@ package org.opennars.core;
 
 import org.junit.Test;
 import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
 import org.opennars.io.Narsese;
+import org.opennars.io.Symbols;
 import org.opennars.io.Symbols.NativeOperator;
 import org.opennars.io.Texts;
 import org.opennars.language.CompoundTerm;
 import org.opennars.language.Inheritance;
+import org.opennars.language.Similarity;
 import org.opennars.language.Statement;
 import org.opennars.language.Term;
+import org.opennars.language.Variables;
 import org.opennars.main.Nar;
 import org.opennars.main.MiscFlags;
 import org.opennars.operator.Operation;
@@ -32,10 +36,12 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.text.ParseException;
+import java.util.HashMap;
 import java.util.NavigableSet;
 import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -286,4 +292,96 @@ public class TermTest {
         assertEquals(Operation.class, x.getClass());
         assertEquals("(^wonder,a,b)", x.toString());
     }
+
+    @Test public void testParseTaskParts() throws Narsese.InvalidInputException {
+        final Task t = np.parseTask("$0.3;0.4$ <(*, a, \"hello world\") -->b>! :|: %0.6;0.7%");
+        assertEquals("<(*,a,\"hello\u2581world\") --> b>", t.sentence.term.toString());
+        assertEquals('!', t.sentence.punctuation);
+        assertEquals(0.3f, t.budget.getPriority(), 0.001f);
+        assertEquals(0.4f, t.budget.getDurability(), 0.001f);
+        assertEquals(0.6f, t.sentence.truth.getFrequency(), 0.001f);
+        assertEquals(0.7f, t.sentence.truth.getConfidence(), 0.001f);
+        assertTrue(!t.sentence.isEternal());
+
+        assertEquals(np.parseTerm("<{p[1,2]} --> camera>"), np.parseTerm("  < {p[1,2]}-->camera >  "));
+        assertEquals(np.parseTerm("<a --] b>").toString(), "<a --> [b]>");
+    }
+    
+    @Test(expected = Narsese.InvalidInputException.class)
+    public void testTrailingInputThrowsException() throws Narsese.InvalidInputException {
+        np.parseTerm("<a --> b> c");
+    }
+
+    @Test
+    public void testValidWithoutCloning() throws Narsese.InvalidInputException {
+        final String[] terms = {
+            "<a --> b>", "<(&,a,b) --> c>", "(&/,a,+3,b)", "<(&/,a,+1) =/> b>", "<(*,a,b) --> (/,r,_,b)>",
+            "<<$1 --> a> <=> <$1 --> b>>", "(-,{a,b},{b})", "(--,<a --> b>)", "(&|,<#1 --> a>,<#1 --> b>)"
+        };
+        for (final String s : terms) {
+            final Term t = np.parseTerm(s);
+            assertEquals(s, t.cloneDeep() != null, Term.valid(t));
+            assertTrue(s, Term.valid(t));
+        }
+
+        final Term a = Term.get("a");
+        final Term b = Term.get("b");
+        assertFalse(Term.valid(new Similarity(a, a)));
+        assertTrue(Term.valid(new Similarity(b, a))); //unsorted, make() reorders it
+        final Term ab = np.parseTerm("(&,a,b)");
+        assertFalse(Term.valid(new Similarity(ab, np.parseTerm("(&,b,a)"))));
+    }
+
+    @Test
+    public void testSignature() throws Narsese.InvalidInputException {
+        final CompoundTerm t = (CompoundTerm) np.parseTerm("<(&&,<a --> b>,<#1 --> c>) ==> <d --> e>>");
+        assertTrue(t.containsTermRecursively(np.parseTerm("<a --> b>")));
+        assertTrue(t.containsTermRecursively(np.parseTerm("#1")));
+        assertFalse(t.containsTermRecursively(np.parseTerm("<a --> f>")));
+        assertFalse(t.containsTermRecursively(np.parseTerm("$1")));
+        assertEquals(0, np.parseTerm("<a --> b>").signature() & ~t.signature());
+
+        final Term x = np.parseTerm("<(*,a,$1) --> r>");
+        assertTrue(Variables.findSubstitute(Symbols.VAR_INDEPENDENT, x, np.parseTerm("<(*,a,b) --> r>"), new HashMap<>(), new HashMap<>()));
+        assertFalse(Variables.findSubstitute(Symbols.VAR_INDEPENDENT, x, np.parseTerm("<(*,c,b) --> r>"), new HashMap<>(), new HashMap<>()));
+    }
+
+    @Test
+    public void testSignaturePartialSequenceMatch() throws Narsese.InvalidInputException {
+        final Term shorter = np.parseTerm("(&/,a,b)");
+        final Term longer = np.parseTerm("(&/,x,a,b,y)");
+        assertTrue(Variables.findSubstitute(Symbols.VAR_INDEPENDENT, shorter, longer, new HashMap[2], true));
+        assertFalse(Variables.findSubstitute(Symbols.VAR_INDEPENDENT, shorter, longer, new HashMap[2], false));
+        assertFalse(Variables.findSubstitute(Symbols.VAR_INDEPENDENT, np.parseTerm("(&/,a,c)"), longer, new HashMap[2], true));
+    }
+
+    @Test
+    public void testAtomInterning() throws InterruptedException {
+        final Term p = Term.get("p[3,4]");
+        assertEquals("p[i,j,k,l]", p.name().toString());
+        assertEquals("p", p.index_variable);
+        assertTrue(java.util.Arrays.equals(new int[] {1, 1, 3, 4}, p.term_indices));
+        assertTrue(p != Term.get("p[3,4]"));
+        assertTrue(java.util.Arrays.equals(new int[] {2, 2, 5, 6}, Term.get("p[2,2,5,6]").term_indices));
+        assertEquals(null, Term.get("p[x,4]").term_indices);
+
+        final Term[] seen = new Term[8];
+        final Thread[] threads = new Thread[seen.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int k = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    Term.get("interned" + j);
+                }
+                seen[k] = Term.get("interned999");
+            });
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        for (final Term t : seen) {
+            assertTrue(t == seen[0]);
+        }
+    }
 }
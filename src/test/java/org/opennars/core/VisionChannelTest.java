@@ -0,0 +1,44 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.language.Inheritance;
+import org.opennars.main.Nar;
+import org.opennars.plugin.perception.VisionChannel;
+import org.opennars.plugin.perception.VisualSpace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class VisionChannelTest {
+
+    @Test
+    public void testFrameBecomesVisualSpace() throws Exception {
+        final Nar nar = new Nar();
+        final VisionChannel channel = new VisionChannel("cam", nar, nar, 3, 2, 5);
+        final float[] frame = {0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f};
+        channel.addFrame("x", frame, false, nar);
+        channel.addFrame("x", frame, false, nar);
+        nar.cycles(1);
+        final Concept concept = nar.concept("<{x2} --> [cam]>");
+        assertNotNull(concept);
+        final VisualSpace space = (VisualSpace) ((Inheritance) concept.beliefs.get(0).getTerm()).getSubject().imagination;
+        assertNotNull(space);
+        assertEquals(0.6f, space.cropped[1][2], 0.0f);
+        assertEquals(0.2f, space.cropped[0][1], 0.0f);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.TruthValue;
+import org.opennars.inference.TruthFunctions;
+import org.opennars.main.Nar;
+import org.opennars.plugin.perception.VisualSpace;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class VisualSpaceTest {
+
+    private static float[][] random(final Random rnd, final int h, final int w) {
+        final float[][] m = new float[h][w];
+        for (int i = 0; i < h; i++) {
+            for (int j = 0; j < w; j++) {
+                m[i][j] = rnd.nextFloat();
+            }
+        }
+        return m;
+    }
+
+    /** revises the per pixel truth values one at a time for every shift */
+    private static TruthValue reference(final Nar nar, final float[][] a, final float[][] b, final boolean comparison) {
+        final int n = a.length;
+        final float c = nar.narParameters.DEFAULT_JUDGMENT_CONFIDENCE;
+        TruthValue best = new TruthValue(0.5f, 0.01f, nar.narParameters);
+        for (int oj = -n; oj < n; oj++) {
+            for (int oi = -n; oi < n; oi++) {
+                TruthValue sim = new TruthValue(0.5f, 0.01f, nar.narParameters);
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        if (i + oi < 0 || i + oi >= n || j + oj < 0 || j + oj >= n) {
+                            continue;
+                        }
+                        final TruthValue t1 = new TruthValue(a[i + oi][j + oj], c, nar.narParameters);
+                        final TruthValue t2 = new TruthValue(b[i][j], c, nar.narParameters);
+                        final TruthValue t3 = comparison ? TruthFunctions.comparison(t1, t2, nar.narParameters) :
+                            TruthFunctions.abduction(t1, t2, nar.narParameters);
+                        sim = TruthFunctions.revision(sim, t3, nar.narParameters);
+                    }
+                }
+                if (sim.getExpectation() > best.getExpectation()) {
+                    best = sim;
+                }
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void testKernelMatchesSequentialRevision() throws Exception {
+        final Nar nar = new Nar();
+        final Random rnd = new Random(1);
+        final float[][] a = random(rnd, 4, 4);
+        final float[][] b = random(rnd, 4, 4);
+        final VisualSpace va = new VisualSpace(nar, a, 0, 0, 4, 4);
+        final VisualSpace vb = new VisualSpace(nar, b, 0, 0, 4, 4);
+        for (final boolean comparison : new boolean[] {false, true}) {
+            final TruthValue expected = reference(nar, a, b, comparison);
+            final TruthValue actual = va.AbductionOrComparisonTo(vb, comparison);
+            assertEquals(expected.getFrequency(), actual.getFrequency(), 0.001f);
+            assertEquals(expected.getConfidence(), actual.getConfidence(), 0.001f);
+        }
+    }
+
+    @Test
+    public void testCorrelationMatchesDirectKernel() throws Exception {
+        final Nar nar = new Nar();
+        final Random rnd = new Random(2);
+        final VisualSpace va = new VisualSpace(nar, random(rnd, 12, 12), 0, 0, 12, 12);
+        final VisualSpace vb = new VisualSpace(nar, random(rnd, 12, 12), 0, 0, 12, 12);
+        for (final boolean comparison : new boolean[] {false, true}) {
+            nar.narParameters.VISUAL_CORRELATION_FFT_PIXELS = 0;
+            final TruthValue direct = va.AbductionOrComparisonTo(vb, comparison);
+            nar.narParameters.VISUAL_CORRELATION_FFT_PIXELS = 1;
+            final TruthValue fft = va.AbductionOrComparisonTo(vb, comparison);
+            assertEquals(direct.getFrequency(), fft.getFrequency(), 0.0001f);
+            assertEquals(direct.getConfidence(), fft.getConfidence(), 0.0001f);
+        }
+    }
+}
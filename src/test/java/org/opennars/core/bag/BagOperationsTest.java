@@ -22,9 +22,11 @@ import org.junit.Test;
 import org.opennars.entity.BudgetValue;
 import org.opennars.entity.Concept;
 import org.opennars.entity.Item;
+import org.opennars.entity.TermLink;
 import org.opennars.language.Term;
 import org.opennars.main.Nar;
 import org.opennars.storage.Bag;
+import org.opennars.storage.EmptyBag;
 import org.opennars.storage.LevelBag;
 import org.xml.sax.SAXException;
 
@@ -83,6 +85,20 @@ public class BagOperationsTest {
         testBagSequence(new LevelBag(2, 2, nar.narParameters));    
     }
     
+    @Test
+    public void testConceptLinkBagsAreShared() throws Exception {
+        final Nar nar = new Nar();
+        final Concept a = new Concept(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), new Term("a"), nar.memory);
+        final Concept b = new Concept(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), new Term("b"), nar.memory);
+        assertTrue(EmptyBag.is(a.taskLinks) && a.taskLinks == b.taskLinks && a.termLinks == b.termLinks);
+        assertEquals(null, a.termLinks.takeNext());
+
+        a.insertTermLink(new TermLink(new Term("b"), TermLink.COMPOUND, null, new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters)));
+        assertTrue(a.termLinks instanceof LevelBag);
+        assertEquals(1, a.termLinks.size());
+        assertTrue(EmptyBag.is(b.termLinks));
+    }
+
     public static void testBagSequence(final Bag b) {
 
         //different id, different priority
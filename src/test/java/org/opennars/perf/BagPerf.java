@@ -151,7 +151,7 @@ public class BagPerf {
         public final String key;
     
         public NullItem() {
-            this(Memory.randomNumber.nextFloat() * (1.0f - narParameters.TRUTH_EPSILON));
+            this(Memory.random().nextFloat() * (1.0f - narParameters.TRUTH_EPSILON));
         }
 
         public NullItem(final float priority) {
@@ -168,7 +168,7 @@ public class BagPerf {
     
     public static void randomBagIO(final Bag<NullItem,CharSequence> b, final int accesses, final double insertProportion) {
         for (int i = 0; i < accesses; i++) {
-            if (Memory.randomNumber.nextFloat() > insertProportion) {
+            if (Memory.random().nextFloat() > insertProportion) {
                 //remove
                 b.takeNext();
             }